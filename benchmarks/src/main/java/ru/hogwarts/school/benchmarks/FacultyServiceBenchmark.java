@@ -0,0 +1,53 @@
+package ru.hogwarts.school.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.service.EntityCache;
+import ru.hogwarts.school.service.FacultyService;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class FacultyServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int students;
+
+    private ConfigurableApplicationContext context;
+    private FacultyService facultyService;
+    private EntityCache<?> facultyStatsCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SchoolBenchmarkContext.start("faculties");
+        SchoolBenchmarkContext.seed(context, students);
+        facultyService = context.getBean(FacultyService.class);
+        facultyStatsCache = context.getBean("facultyStatsCache", EntityCache.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String theLongestName() {
+        return facultyService.theLongestName();
+    }
+
+    @Benchmark
+    public String theLongestNameUncached() {
+        facultyStatsCache.invalidateAll();
+        return facultyService.theLongestName();
+    }
+
+    @Benchmark
+    public int leftCalculation() {
+        return facultyService.leftCalculation();
+    }
+}
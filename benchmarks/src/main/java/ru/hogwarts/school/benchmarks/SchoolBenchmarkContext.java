@@ -0,0 +1,21 @@
+package ru.hogwarts.school.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.fixtures.SchoolFixtures;
+
+final class SchoolBenchmarkContext {
+
+    private static final long SEED = 42;
+
+    private SchoolBenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String database) {
+        return SchoolFixtures.start(WebApplicationType.NONE, database, "target/bench-avatars");
+    }
+
+    static void seed(ConfigurableApplicationContext context, int students) {
+        SchoolFixtures.seed(context, Math.max(4, students / 1000), students, SEED);
+    }
+}
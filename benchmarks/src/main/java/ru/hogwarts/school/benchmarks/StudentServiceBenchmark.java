@@ -0,0 +1,52 @@
+package ru.hogwarts.school.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.dto.FacultyStudents;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class StudentServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int students;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SchoolBenchmarkContext.start("students");
+        SchoolBenchmarkContext.seed(context, students);
+        studentService = context.getBean(StudentService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<FacultyStudents> groupingByFaculty() {
+        return studentService.groupingByFaculty(6);
+    }
+
+    @Benchmark
+    public Collection<String> studentsNamesStartingA() {
+        return studentService.studentsNamesStartingA();
+    }
+
+    @Benchmark
+    public double studentsAgeMiddle() {
+        return studentService.studentsAgeMiddle();
+    }
+}
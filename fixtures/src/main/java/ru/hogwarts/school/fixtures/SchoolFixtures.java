@@ -0,0 +1,77 @@
+package ru.hogwarts.school.fixtures;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.hogwarts.school.SchoolApplication;
+import ru.hogwarts.school.service.SearchIndex;
+import ru.hogwarts.school.service.StudentAgeIndex;
+import ru.hogwarts.school.service.StudentStatistics;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public final class SchoolFixtures {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] FIRST_NAMES = {"Albus", "Alicia", "Angelina", "Arthur", "Cedric", "Cho", "Dean", "Draco", "Ernie", "Fred",
+            "George", "Ginny", "Hannah", "Harry", "Hermione", "Katie", "Lavender", "Lee", "Luna", "Neville",
+            "Oliver", "Padma", "Parvati", "Percy", "Ron", "Seamus", "Susan", "Terry", "Vincent", "Zacharias"};
+    private static final String[] LAST_NAMES = {"Abbott", "Bell", "Bones", "Boot", "Brown", "Chang", "Crabbe", "Diggory", "Finnigan", "Granger",
+            "Johnson", "Jordan", "Longbottom", "Lovegood", "Macmillan", "Malfoy", "Patil", "Potter", "Smith", "Spinnet",
+            "Thomas", "Weasley", "Wood", "Goyle", "Zabini"};
+
+    private SchoolFixtures() {
+    }
+
+    // Starts the application on an in-memory H2 database; extraArgs are appended to (and override) the defaults.
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String database, String avatarsFolder, String... extraArgs) {
+        System.setProperty("java.awt.headless", "true");
+        String[] args = Stream.concat(Stream.of(
+                        "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.liquibase.enabled=false",
+                        "--path.to.avatars.folder=" + avatarsFolder,
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN"), Stream.of(extraArgs))
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(SchoolApplication.class)
+                .web(webApplicationType)
+                .run(args);
+    }
+
+    // Every 50th student has no faculty. The in-memory statistics and indexes are rebuilt afterwards.
+    public static void seed(ConfigurableApplicationContext context, int faculties, int students, long seed) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(faculties);
+        for (int i = 1; i <= faculties; i++) {
+            rows.add(new Object[]{i, "Faculty " + LAST_NAMES[i % LAST_NAMES.length] + " " + i, "Color " + (i % 12)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO faculty (id, name, color) VALUES (?, ?, ?)", rows);
+
+        Random random = new Random(seed);
+        rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= students; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            Integer facultyId = i % 50 == 0 ? null : random.nextInt(faculties) + 1;
+            rows.add(new Object[]{i, name, 11 + random.nextInt(8), facultyId});
+            if (rows.size() == BATCH_SIZE || i == students) {
+                jdbcTemplate.batchUpdate("INSERT INTO student (id, name, age, faculty_id) VALUES (?, ?, ?, ?)", rows,
+                        new int[]{Types.BIGINT, Types.VARCHAR, Types.INTEGER, Types.BIGINT});
+                rows.clear();
+            }
+        }
+
+        context.getBean(StudentStatistics.class).rebuild();
+        context.getBean(StudentAgeIndex.class).rebuild();
+        context.getBean(SearchIndex.class).rebuild();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.hogwarts.school.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+final class EndpointStats {
+
+    private final ConcurrentHistogram latency = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos, boolean success) {
+        latency.recordValue(latencyNanos);
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    Histogram snapshot() {
+        return latency.copy();
+    }
+}
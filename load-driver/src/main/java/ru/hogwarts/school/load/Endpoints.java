@@ -0,0 +1,67 @@
+package ru.hogwarts.school.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+final class Endpoints {
+
+    private static final String[] NAME_PREFIXES = {"al", "an", "ce", "dr", "ge", "gi", "ha", "he", "lu", "ne", "pa", "ro", "se", "su"};
+    private static final int[] PREVIEW_WIDTHS = {50, 100, 200};
+
+    private static final Map<String, BiFunction<Random, LoadConfig, String>> PATHS = new LinkedHashMap<>();
+
+    static {
+        PATHS.put("student.byId", (random, config) -> "/student/" + (1 + random.nextInt(config.getStudents())));
+        PATHS.put("student.page", (random, config) -> "/student?limit=50&after=" + random.nextInt(config.getStudents()));
+        PATHS.put("student.byAge", (random, config) -> "/student/age/" + (11 + random.nextInt(8)));
+        PATHS.put("student.prefix", (random, config) -> "/student/names/prefix/" + NAME_PREFIXES[random.nextInt(NAME_PREFIXES.length)] + "?limit=50");
+        PATHS.put("faculty.byId", (random, config) -> "/faculty/" + (1 + random.nextInt(config.getFaculties())));
+        PATHS.put("faculty.list", (random, config) -> "/faculty");
+        PATHS.put("faculty.stats", (random, config) -> "/faculty/stats");
+        PATHS.put("avatar.fromDb", (random, config) -> "/avatar/" + (1 + random.nextInt(config.getAvatars())) + "/from-db");
+        PATHS.put("avatar.preview", (random, config) -> "/avatar/" + (1 + random.nextInt(config.getAvatars())) + "/preview?w=" + PREVIEW_WIDTHS[random.nextInt(PREVIEW_WIDTHS.length)]);
+        PATHS.put("avatar.all", (random, config) -> "/avatar/all?size=50");
+    }
+
+    private final LoadConfig config;
+    private final String[] names;
+    private final int[] cumulativeWeights;
+
+    Endpoints(LoadConfig config) {
+        this.config = config;
+        this.names = new String[config.getMix().size()];
+        this.cumulativeWeights = new int[names.length];
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : config.getMix().entrySet()) {
+            if (!PATHS.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("Unknown endpoint '" + entry.getKey() + "', known endpoints: " + PATHS.keySet());
+            }
+            if (entry.getKey().startsWith("avatar.") && config.getAvatars() == 0) {
+                throw new IllegalArgumentException("Endpoint '" + entry.getKey() + "' needs avatars > 0");
+            }
+            total += entry.getValue();
+            names[i] = entry.getKey();
+            cumulativeWeights[i++] = total;
+        }
+    }
+
+    String[] names() {
+        return names.clone();
+    }
+
+    String pick(Random random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (cumulativeWeights[i] <= ticket) {
+            i++;
+        }
+        return names[i];
+    }
+
+    String path(String name, Random random) {
+        return PATHS.get(name).apply(random, config);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.hogwarts.school.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class LoadConfig {
+
+    static final String DEFAULT_MIX = "student.byId:20,student.page:10,student.byAge:10,student.prefix:10,"
+            + "faculty.byId:15,faculty.list:5,faculty.stats:5,avatar.fromDb:10,avatar.preview:10,avatar.all:5";
+
+    private final int rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int students;
+    private final int faculties;
+    private final int avatars;
+    private final long seed;
+    private final Map<String, Integer> mix;
+    private final Path reportDir;
+
+    private LoadConfig(Map<String, String> options) {
+        this.rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        this.warmup = Duration.parse(options.getOrDefault("warmup", "PT10S"));
+        this.duration = Duration.parse(options.getOrDefault("duration", "PT30S"));
+        this.students = Integer.parseInt(options.getOrDefault("students", "10000"));
+        this.faculties = Integer.parseInt(options.getOrDefault("faculties", "20"));
+        this.avatars = Integer.parseInt(options.getOrDefault("avatars", "200"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+        this.reportDir = Path.of(options.getOrDefault("report-dir", "target/load-reports"));
+        if (rate < 1 || students < 1 || faculties < 1 || avatars < 0 || avatars > students) {
+            throw new IllegalArgumentException("rate, students and faculties must be positive, avatars must be between 0 and students");
+        }
+    }
+
+    static LoadConfig parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return new LoadConfig(options);
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.strip().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            if (weight > 0) {
+                weights.put(parts[0], weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Endpoint mix is empty");
+        }
+        return weights;
+    }
+
+    int getRate() {
+        return rate;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    int getStudents() {
+        return students;
+    }
+
+    int getFaculties() {
+        return faculties;
+    }
+
+    int getAvatars() {
+        return avatars;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    Map<String, Integer> getMix() {
+        return mix;
+    }
+
+    Path getReportDir() {
+        return reportDir;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadConfig{" + "rate=" + rate + ", warmup=" + warmup + ", duration=" + duration + ", students=" + students + ", faculties=" + faculties + ", avatars=" + avatars + ", seed=" + seed + ", mix=" + mix + ", reportDir=" + reportDir + '}';
+    }
+}
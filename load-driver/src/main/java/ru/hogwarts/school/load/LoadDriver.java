@@ -0,0 +1,197 @@
+package ru.hogwarts.school.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+import ru.hogwarts.school.fixtures.SchoolFixtures;
+import ru.hogwarts.school.model.AvatarStatus;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public final class LoadDriver {
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration PREVIEW_TIMEOUT = Duration.ofMinutes(2);
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        Endpoints endpoints = new Endpoints(config);
+        logger.info("Starting load run with {}", config);
+        try (ConfigurableApplicationContext context = start()) {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            seed(context, baseUrl, config);
+            Map<String, EndpointStats> stats = new LinkedHashMap<>();
+            for (String name : endpoints.names()) {
+                stats.put(name, new EndpointStats());
+            }
+            double achievedRate = run(baseUrl, config, endpoints, stats);
+            Path report = LoadReport.write(config, stats, achievedRate);
+            logger.info("Load report written to {}", report.toAbsolutePath());
+        }
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return SchoolFixtures.start(WebApplicationType.SERVLET, "load", "target/load-avatars",
+                "--server.port=0",
+                "--avatar.preview.queue-capacity=100000",
+                "--logging.level.ru.hogwarts.school.load=INFO");
+    }
+
+    private static void seed(ConfigurableApplicationContext context, String baseUrl, LoadConfig config) throws IOException, InterruptedException {
+        logger.info("Seeding {} faculties, {} students and {} avatars", config.getFaculties(), config.getStudents(), config.getAvatars());
+        SchoolFixtures.seed(context, config.getFaculties(), config.getStudents(), config.getSeed());
+
+        RestTemplate restTemplate = new RestTemplate();
+        for (int studentId = 1; studentId <= config.getAvatars(); studentId++) {
+            restTemplate.postForEntity(baseUrl + "/avatar/" + studentId + "/upload", avatarUpload(studentId), Long.class);
+        }
+        awaitPreviews(context.getBean(JdbcTemplate.class));
+    }
+
+    // Previews are generated asynchronously; running before they are READY would measure the fallback path and the generator's CPU load.
+    private static void awaitPreviews(JdbcTemplate jdbcTemplate) throws InterruptedException {
+        long deadline = System.nanoTime() + PREVIEW_TIMEOUT.toNanos();
+        Long pending;
+        while ((pending = countAvatars(jdbcTemplate, AvatarStatus.PENDING)) > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(pending + " avatar previews were not generated within " + PREVIEW_TIMEOUT);
+            }
+            Thread.sleep(100);
+        }
+        Long failed = countAvatars(jdbcTemplate, AvatarStatus.FAILED);
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " avatar previews failed to generate");
+        }
+    }
+
+    private static Long countAvatars(JdbcTemplate jdbcTemplate, AvatarStatus status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM avatar WHERE status = ?", Long.class, status.name());
+    }
+
+    private static HttpEntity<MultiValueMap<String, Object>> avatarUpload(int studentId) throws IOException {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * studentId) << 16 | y << 8 | (x ^ y) & 0xFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.IMAGE_PNG);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("avatar", new HttpEntity<>(new ByteArrayResource(out.toByteArray()) {
+            @Override
+            public String getFilename() {
+                return "avatar-" + studentId + ".png";
+            }
+        }, partHeaders));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        return new HttpEntity<>(body, headers);
+    }
+
+    private static double run(String baseUrl, LoadConfig config, Endpoints endpoints, Map<String, EndpointStats> stats) throws InterruptedException {
+        long intervalNanos = Math.max(1, 1_000_000_000L / config.getRate());
+        long warmupRequests = config.getWarmup().toNanos() / intervalNanos;
+        long totalRequests = warmupRequests + config.getDuration().toNanos() / intervalNanos;
+        logger.info("Sending {} requests at {} req/s, the first {} are warmup", totalRequests, config.getRate(), warmupRequests);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        Random random = new Random(config.getSeed());
+        Map<Long, InFlight> inFlight = new ConcurrentHashMap<>();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long firstSent = 0;
+        long lastSent = 0;
+        for (long i = 0; i < totalRequests; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String name = endpoints.pick(random);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoints.path(name, random))).timeout(REQUEST_TIMEOUT).GET().build();
+            boolean measured = i >= warmupRequests;
+            long key = i;
+            inFlight.put(key, new InFlight(measured ? stats.get(name) : null, intendedStart));
+            long sent = System.nanoTime();
+            if (i == warmupRequests) {
+                firstSent = sent;
+            }
+            lastSent = sent;
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                InFlight completed = inFlight.remove(key);
+                if (completed != null) {
+                    completed.record(System.nanoTime(), error == null && response.statusCode() < 400);
+                }
+            });
+        }
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (!inFlight.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        // Whoever removes an entry first records it, so a response racing the deadline is not counted twice.
+        long abandoned = 0;
+        for (Long key : inFlight.keySet()) {
+            InFlight timedOut = inFlight.remove(key);
+            if (timedOut != null) {
+                timedOut.record(System.nanoTime(), false);
+                abandoned++;
+            }
+        }
+        if (abandoned > 0) {
+            logger.warn("{} requests did not complete before the deadline and were recorded as errors", abandoned);
+        }
+        executor.shutdownNow();
+        long measuredRequests = totalRequests - warmupRequests;
+        if (measuredRequests < 2) {
+            return 0;
+        }
+        return (measuredRequests - 1) / (Math.max(1, lastSent - firstSent) / 1e9);
+    }
+
+    private record InFlight(EndpointStats stats, long intendedStart) {
+
+        void record(long now, boolean success) {
+            if (stats != null) {
+                stats.record(now - intendedStart, success);
+            }
+        }
+    }
+}
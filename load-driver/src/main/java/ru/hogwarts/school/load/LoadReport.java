@@ -0,0 +1,85 @@
+package ru.hogwarts.school.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private LoadReport() {
+    }
+
+    static Path write(LoadConfig config, Map<String, EndpointStats> stats, double achievedRate) throws IOException {
+        Path dir = config.getReportDir().resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Files.createDirectories(dir);
+
+        Histogram total = new Histogram(3);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().snapshot();
+            total.add(histogram);
+            rows.add(row(entry.getKey(), histogram, entry.getValue().errors()));
+            writeDistribution(dir.resolve(entry.getKey() + ".hgrm"), histogram);
+        }
+        long totalErrors = stats.values().stream().mapToLong(EndpointStats::errors).sum();
+        rows.add(row("all", total, totalErrors));
+        writeDistribution(dir.resolve("all.hgrm"), total);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("targetRate", config.getRate());
+        summary.put("achievedRate", achievedRate);
+        summary.put("warmup", config.getWarmup().toString());
+        summary.put("duration", config.getDuration().toString());
+        summary.put("students", config.getStudents());
+        summary.put("faculties", config.getFaculties());
+        summary.put("avatars", config.getAvatars());
+        summary.put("seed", config.getSeed());
+        summary.put("mix", config.getMix());
+        summary.put("endpoints", rows);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(dir.resolve("summary.json").toFile(), summary);
+
+        printTable(System.out, rows);
+        return dir;
+    }
+
+    private static Map<String, Object> row(String name, Histogram histogram, long errors) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("endpoint", name);
+        row.put("count", histogram.getTotalCount());
+        row.put("errors", errors);
+        row.put("meanMs", histogram.getMean() / NANOS_PER_MILLI);
+        row.put("p50Ms", histogram.getValueAtPercentile(50) / NANOS_PER_MILLI);
+        row.put("p90Ms", histogram.getValueAtPercentile(90) / NANOS_PER_MILLI);
+        row.put("p99Ms", histogram.getValueAtPercentile(99) / NANOS_PER_MILLI);
+        row.put("p999Ms", histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI);
+        row.put("maxMs", histogram.getMaxValue() / NANOS_PER_MILLI);
+        return row;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+
+    private static void printTable(PrintStream out, List<Map<String, Object>> rows) {
+        out.printf("%-16s %9s %7s %9s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map<String, Object> row : rows) {
+            out.printf("%-16s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", row.get("endpoint"), row.get("count"), row.get("errors"),
+                    row.get("p50Ms"), row.get("p90Ms"), row.get("p99Ms"), row.get("p999Ms"), row.get("maxMs"));
+        }
+    }
+}
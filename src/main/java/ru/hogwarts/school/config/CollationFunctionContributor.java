@@ -0,0 +1,17 @@
+package ru.hogwarts.school.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+public class CollationFunctionContributor implements FunctionContributor {
+
+    // c_collate(x) compares x byte-wise, which lets PostgreSQL serve range scans and ordering from a COLLATE "C" index.
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        String pattern = functionContributions.getDialect() instanceof PostgreSQLDialect ? "(?1 collate \"C\")" : "(?1)";
+        functionContributions.getFunctionRegistry().registerPattern("c_collate", pattern,
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.STRING));
+    }
+}
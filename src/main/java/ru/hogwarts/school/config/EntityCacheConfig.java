@@ -0,0 +1,36 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.FacultyStatsReport;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.EntityCache;
+
+import java.time.Duration;
+
+@Configuration
+public class EntityCacheConfig {
+
+    @Bean
+    public EntityCache<Student> studentCache(@Value("${cache.student.max-size:10000}") long maxSize,
+                                             @Value("${cache.student.ttl:PT10M}") Duration ttl,
+                                             MeterRegistry meterRegistry) {
+        return new EntityCache<>("student", maxSize, ttl, meterRegistry);
+    }
+
+    @Bean
+    public EntityCache<FacultyDto> facultyCache(@Value("${cache.faculty.max-size:1000}") long maxSize,
+                                                @Value("${cache.faculty.ttl:PT10M}") Duration ttl,
+                                                MeterRegistry meterRegistry) {
+        return new EntityCache<>("faculty", maxSize, ttl, meterRegistry);
+    }
+
+    @Bean
+    public EntityCache<FacultyStatsReport> facultyStatsCache(@Value("${cache.faculty-stats.ttl:PT5M}") Duration ttl,
+                                                             MeterRegistry meterRegistry) {
+        return new EntityCache<>("faculty-stats", 1, ttl, meterRegistry);
+    }
+}
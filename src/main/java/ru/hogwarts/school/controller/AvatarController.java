@@ -1,22 +1,35 @@
 package ru.hogwarts.school.controller;
 
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.dto.AvatarImportResult;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.dto.AvatarPreview;
+import ru.hogwarts.school.exception.AvatarProcessingException;
+import ru.hogwarts.school.model.AvatarRendition;
+import ru.hogwarts.school.model.AvatarStatus;
+import ru.hogwarts.school.service.AvatarImportService;
 import ru.hogwarts.school.service.AvatarService;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/avatar")
 public class AvatarController {
     private final AvatarService avatarService;
+    private final AvatarImportService avatarImportService;
 
-    public AvatarController(AvatarService avatarService) {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public AvatarController(AvatarService avatarService, AvatarImportService avatarImportService) {
         this.avatarService = avatarService;
+        this.avatarImportService = avatarImportService;
     }
 
     @PostMapping(value = "/{studentId}/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -24,22 +37,46 @@ public class AvatarController {
         return ResponseEntity.ok(avatarService.uploadAvatar(studentId, avatar).getId());
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<AvatarImportResult>> importAvatars(@RequestPart("archive") MultipartFile archive) throws IOException {
+        return ResponseEntity.ok(avatarImportService.importArchive(archive));
+    }
+
     @GetMapping(value = "/{studentId}/from-db")
     public ResponseEntity<byte[]> getAvatarFromDb(@PathVariable Long studentId) {
-        Avatar avatar = avatarService.getAvatarInfo(studentId);
-        return ResponseEntity.ok().contentType(MediaType.parseMediaType(avatar.getMediaType())).contentLength(avatar.getData().length).body(avatar.getData());
+        AvatarPreview preview = avatarService.getAvatarPreview(studentId);
+        if (preview.getStatus() == AvatarStatus.PENDING) {
+            return ResponseEntity.accepted().header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        if (preview.getStatus() == AvatarStatus.FAILED) {
+            throw new AvatarProcessingException("Не удалось создать превью аватара для студента с id " + studentId);
+        }
+        return ResponseEntity.ok().eTag(preview.getETag()).contentType(MediaType.parseMediaType(preview.getMediaType())).contentLength(preview.getData().length).body(preview.getData());
     }
 
     @GetMapping(value = "/{studentId}/from-file")
-    public ResponseEntity<byte[]> getAvatarFromFile(@PathVariable Long studentId) throws IOException {
-        Avatar avatar = avatarService.getAvatarInfo(studentId);
-        byte[] data = avatarService.getAvatarFromFile(studentId);
+    public ResponseEntity<Resource> getAvatarFromFile(@PathVariable Long studentId) throws IOException {
+        AvatarInfo avatar = avatarService.getAvatarInfo(studentId);
+        Resource file = avatarService.getAvatarFromFile(avatar);
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(avatar.getMediaType())).body(file);
+    }
 
-        return ResponseEntity.ok().contentType(MediaType.parseMediaType(avatar.getMediaType())).contentLength(data.length).body(data);
+    @GetMapping(value = "/{studentId}/preview")
+    public ResponseEntity<byte[]> getAvatarPreview(@PathVariable Long studentId, @RequestParam("w") int width) {
+        AvatarRendition rendition = avatarService.getAvatarRendition(studentId, width);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(rendition.getMediaType())).contentLength(rendition.getData().length).body(rendition.getData());
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Collection<Avatar>> getAllAvatars(@RequestParam int page, @RequestParam int size) {
-        return ResponseEntity.ok(avatarService.getAllAvatars(page, size));
+    public ResponseEntity<Collection<AvatarInfo>> getAllAvatars(@RequestParam(required = false) Integer page, @RequestParam(defaultValue = "50") int size, @RequestParam(required = false) Long after) {
+        if (page != null) {
+            return ResponseEntity.ok(avatarService.getAllAvatars(page, size));
+        }
+        List<AvatarInfo> avatars = avatarService.getAvatarsAfter(after, size);
+        if (avatars.size() < size) {
+            return ResponseEntity.ok(avatars);
+        }
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(avatars.get(avatars.size() - 1).getId())).body(avatars);
     }
 }
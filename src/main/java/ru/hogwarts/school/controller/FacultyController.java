@@ -1,17 +1,25 @@
 package ru.hogwarts.school.controller;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.FacultyStatsReport;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.service.FacultyService;
 
 import java.util.Collection;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/faculty")
 public class FacultyController {
     private final FacultyService facultyService;
 
+    private static final String INCLUDE_STUDENTS = "students";
+
     public FacultyController(FacultyService facultyService) {
         this.facultyService = facultyService;
     }
@@ -21,29 +29,40 @@ public class FacultyController {
         return facultyService.theLongestName();
     }
 
+    @GetMapping("/stats")
+    public FacultyStatsReport getFacultyStats() {
+        return facultyService.getFacultyStats();
+    }
+
     @GetMapping("Calculation")
     public int leftCalculation() {
         return facultyService.leftCalculation();
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportFaculties() {
+        StreamingResponseBody body = facultyService::exportFaculties;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
-    public Faculty getFacultyId(@PathVariable Long id) {
-        return facultyService.findFacultyById(id);
+    public FacultyDto getFacultyId(@PathVariable Long id, @RequestParam(defaultValue = "") Set<String> include) {
+        return facultyService.findFacultyById(id, include.contains(INCLUDE_STUDENTS));
     }
 
     @GetMapping("/search/{query}")
-    public Collection<Faculty> searchFacultyByNameOrColor(@PathVariable String query) {
-        return facultyService.findFacultyByNameOrColor(query);
+    public Collection<FacultyDto> searchFacultyByNameOrColor(@PathVariable String query, @RequestParam(defaultValue = "") Set<String> include) {
+        return facultyService.findFacultyByNameOrColor(query, include.contains(INCLUDE_STUDENTS));
     }
 
     @GetMapping("/search/color/{color}")
-    public Collection<Faculty> findFacultyByColor(@PathVariable String color) {
-        return facultyService.findFacultyByColor(color);
+    public Collection<FacultyDto> findFacultyByColor(@PathVariable String color, @RequestParam(defaultValue = "") Set<String> include) {
+        return facultyService.findFacultyByColor(color, include.contains(INCLUDE_STUDENTS));
     }
 
     @GetMapping
-    public Collection<Faculty> getFacultiesAll() {
-        return facultyService.findAllFaculties();
+    public Collection<FacultyDto> getFacultiesAll(@RequestParam(defaultValue = "") Set<String> include) {
+        return facultyService.findAllFaculties(include.contains(INCLUDE_STUDENTS));
     }
 
     @GetMapping("/students/{id}")
@@ -52,12 +71,12 @@ public class FacultyController {
     }
 
     @PostMapping
-    public Faculty createFaculty(@RequestBody Faculty faculty) {
+    public FacultyDto createFaculty(@RequestBody Faculty faculty) {
         return facultyService.createFaculty(faculty);
     }
 
     @PutMapping
-    public Faculty updateFaculty(@RequestBody Faculty faculty) {
+    public FacultyDto updateFaculty(@RequestBody Faculty faculty) {
         return facultyService.updateFaculty(faculty);
     }
 
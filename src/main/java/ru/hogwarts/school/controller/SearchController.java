@@ -0,0 +1,25 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.service.SearchIndex;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+    private final SearchIndex searchIndex;
+
+    public SearchController(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @GetMapping
+    public List<SearchHit> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return searchIndex.search(q, limit);
+    }
+}
@@ -1,20 +1,36 @@
 package ru.hogwarts.school.controller;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.hogwarts.school.model.Faculty;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.FacultyStudents;
+import ru.hogwarts.school.dto.StudentImportResult;
+import ru.hogwarts.school.dto.StudentName;
+import ru.hogwarts.school.dto.StudentStats;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.StudentImportService;
 import ru.hogwarts.school.service.StudentService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/student")
 public class StudentController {
 
     private final StudentService studentService;
+    private final StudentImportService studentImportService;
 
-    public StudentController(StudentService studentService) {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public StudentController(StudentService studentService, StudentImportService studentImportService) {
         this.studentService = studentService;
+        this.studentImportService = studentImportService;
     }
 
     @GetMapping("/print-parallel")
@@ -32,11 +48,32 @@ public class StudentController {
         return studentService.studentsNamesStartingA();
     }
 
+    @GetMapping("/names/prefix/{prefix}")
+    public ResponseEntity<List<String>> getStudentNamesByPrefix(@PathVariable String prefix, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "50") int limit) {
+        List<StudentName> names = studentService.findStudentNamesByPrefix(prefix, after, limit);
+        List<String> body = names.stream().map(StudentName::getName).toList();
+        if (names.size() < limit) {
+            return ResponseEntity.ok(body);
+        }
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(names.get(names.size() - 1).getId())).body(body);
+    }
+
+    @GetMapping("/by-faculty")
+    public List<FacultyStudents> getStudentsGroupedByFaculty(@RequestParam(defaultValue = "6") int minNameLength) {
+        return studentService.groupingByFaculty(minNameLength);
+    }
+
     @GetMapping("/age/middle")
     public double getStudentsAgeMiddle() {
         return studentService.studentsAgeMiddle();
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportStudents() {
+        StreamingResponseBody body = studentService::exportStudents;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public Student getStudentId(@PathVariable Long id) {
         return studentService.findStudentById(id);
@@ -53,12 +90,16 @@ public class StudentController {
     }
 
     @GetMapping
-    public Collection<Student> getAllStudents() {
-        return studentService.findAllStudents();
+    public ResponseEntity<Collection<Student>> getAllStudents(@RequestParam(required = false) Long after, @RequestParam(defaultValue = "50") int limit) {
+        List<Student> students = studentService.findStudentsAfter(after, limit);
+        if (students.size() < limit) {
+            return ResponseEntity.ok(students);
+        }
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(students.get(students.size() - 1).getId())).body(students);
     }
 
     @GetMapping("/faculty/{id}")
-    public Faculty getStudentFaculty(@PathVariable Long id) {
+    public FacultyDto getStudentFaculty(@PathVariable Long id) {
         return studentService.findFacultyByIdStudent(id);
     }
 
@@ -67,6 +108,11 @@ public class StudentController {
         return studentService.countStudents();
     }
 
+    @GetMapping("/stats")
+    public StudentStats getStudentStats() {
+        return studentService.getStudentStats();
+    }
+
     @GetMapping("/age/average")
     public double averageAgeStudents() {
         return studentService.averageAgeStudents();
@@ -82,6 +128,11 @@ public class StudentController {
         return studentService.createStudent(student);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public StudentImportResult importStudents(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        return studentImportService.importStudents(body, contentType);
+    }
+
     @PutMapping
     public Student updateStudent(@RequestBody Student student) {
         return studentService.updateStudent(student);
@@ -0,0 +1,39 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Objects;
+
+public class AgeCount {
+
+    private final int age;
+    private final long count;
+
+    public AgeCount(int age, long count) {
+        this.age = age;
+        this.count = count;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        AgeCount ageCount = (AgeCount) o;
+        return age == ageCount.age && count == ageCount.count;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(age, count);
+    }
+
+    @Override
+    public String toString() {
+        return "AgeCount{" + "age=" + age + ", count=" + count + '}';
+    }
+}
@@ -0,0 +1,65 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Objects;
+
+public class AvatarImportResult {
+
+    private final String entryName;
+    private final Long studentId;
+    private final Long avatarId;
+    private final boolean success;
+    private final String message;
+
+    public AvatarImportResult(String entryName, Long studentId, Long avatarId, boolean success, String message) {
+        this.entryName = entryName;
+        this.studentId = studentId;
+        this.avatarId = avatarId;
+        this.success = success;
+        this.message = message;
+    }
+
+    public static AvatarImportResult success(String entryName, Long studentId, Long avatarId) {
+        return new AvatarImportResult(entryName, studentId, avatarId, true, null);
+    }
+
+    public static AvatarImportResult failure(String entryName, Long studentId, String message) {
+        return new AvatarImportResult(entryName, studentId, null, false, message);
+    }
+
+    public String getEntryName() {
+        return entryName;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public Long getAvatarId() {
+        return avatarId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        AvatarImportResult that = (AvatarImportResult) o;
+        return success == that.success && Objects.equals(entryName, that.entryName) && Objects.equals(studentId, that.studentId) && Objects.equals(avatarId, that.avatarId) && Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entryName, studentId, avatarId, success, message);
+    }
+
+    @Override
+    public String toString() {
+        return "AvatarImportResult{" + "entryName='" + entryName + '\'' + ", studentId=" + studentId + ", avatarId=" + avatarId + ", success=" + success + ", message='" + message + '\'' + '}';
+    }
+}
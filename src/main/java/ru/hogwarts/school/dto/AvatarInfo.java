@@ -0,0 +1,65 @@
+package ru.hogwarts.school.dto;
+
+import ru.hogwarts.school.model.AvatarStatus;
+
+import java.util.Objects;
+
+public class AvatarInfo {
+
+    private final Long id;
+    private final Long studentId;
+    private final String filePath;
+    private final long fileSize;
+    private final String mediaType;
+    private final AvatarStatus status;
+
+    public AvatarInfo(Long id, Long studentId, String filePath, long fileSize, String mediaType, AvatarStatus status) {
+        this.id = id;
+        this.studentId = studentId;
+        this.filePath = filePath;
+        this.fileSize = fileSize;
+        this.mediaType = mediaType;
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public AvatarStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        AvatarInfo that = (AvatarInfo) o;
+        return fileSize == that.fileSize && Objects.equals(id, that.id) && Objects.equals(studentId, that.studentId) && Objects.equals(filePath, that.filePath) && Objects.equals(mediaType, that.mediaType) && status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, studentId, filePath, fileSize, mediaType, status);
+    }
+
+    @Override
+    public String toString() {
+        return "AvatarInfo{" + "id=" + id + ", studentId=" + studentId + ", filePath='" + filePath + '\'' + ", fileSize=" + fileSize + ", mediaType='" + mediaType + '\'' + ", status=" + status + '}';
+    }
+}
@@ -0,0 +1,53 @@
+package ru.hogwarts.school.dto;
+
+import ru.hogwarts.school.model.AvatarStatus;
+
+import java.util.Objects;
+
+public class AvatarPreview {
+
+    private final AvatarStatus status;
+    private final String mediaType;
+    private final byte[] data;
+    private final String eTag;
+
+    public AvatarPreview(AvatarStatus status, String mediaType, byte[] data, String eTag) {
+        this.status = status;
+        this.mediaType = mediaType;
+        this.data = data;
+        this.eTag = eTag;
+    }
+
+    public AvatarStatus getStatus() {
+        return status;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        AvatarPreview that = (AvatarPreview) o;
+        return status == that.status && Objects.equals(mediaType, that.mediaType) && Objects.equals(eTag, that.eTag);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(status, mediaType, eTag);
+    }
+
+    @Override
+    public String toString() {
+        return "AvatarPreview{" + "status=" + status + ", mediaType='" + mediaType + '\'' + ", size=" + (data != null ? data.length : 0) + ", eTag='" + eTag + '\'' + '}';
+    }
+}
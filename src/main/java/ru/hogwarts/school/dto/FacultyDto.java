@@ -0,0 +1,75 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ru.hogwarts.school.model.Faculty;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FacultyDto {
+
+    private final Long id;
+    private final String name;
+    private final String color;
+    private final List<StudentDto> students;
+
+    public FacultyDto(Long id, String name, String color) {
+        this(id, name, color, null);
+    }
+
+    @JsonCreator
+    public FacultyDto(Long id, String name, String color, List<StudentDto> students) {
+        this.id = id;
+        this.name = name;
+        this.color = color;
+        this.students = students == null ? null : List.copyOf(students);
+    }
+
+    public static FacultyDto from(Faculty faculty) {
+        return new FacultyDto(faculty.getId(), faculty.getName(), faculty.getColor());
+    }
+
+    public static FacultyDto withStudents(Faculty faculty) {
+        List<StudentDto> students = faculty.getStudents().stream()
+                .map(StudentDto::from)
+                .sorted(Comparator.comparingLong(StudentDto::getId))
+                .toList();
+        return new FacultyDto(faculty.getId(), faculty.getName(), faculty.getColor(), students);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public List<StudentDto> getStudents() {
+        return students;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        FacultyDto that = (FacultyDto) o;
+        return Objects.equals(id, that.id) && Objects.equals(name, that.name) && Objects.equals(color, that.color) && Objects.equals(students, that.students);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, color, students);
+    }
+
+    @Override
+    public String toString() {
+        return "FacultyDto{" + "id=" + id + ", name='" + name + '\'' + ", color='" + color + '\'' + ", students=" + students + '}';
+    }
+}
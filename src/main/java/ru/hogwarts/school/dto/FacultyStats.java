@@ -0,0 +1,63 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Objects;
+
+public class FacultyStats {
+
+    private final long facultyId;
+    private final String facultyName;
+    private final long studentCount;
+    private final Double averageAge;
+    private final Integer minAge;
+    private final Integer maxAge;
+
+    public FacultyStats(long facultyId, String facultyName, long studentCount, Double averageAge, Integer minAge, Integer maxAge) {
+        this.facultyId = facultyId;
+        this.facultyName = facultyName;
+        this.studentCount = studentCount;
+        this.averageAge = averageAge;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+
+    public long getFacultyId() {
+        return facultyId;
+    }
+
+    public String getFacultyName() {
+        return facultyName;
+    }
+
+    public long getStudentCount() {
+        return studentCount;
+    }
+
+    public Double getAverageAge() {
+        return averageAge;
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        FacultyStats that = (FacultyStats) o;
+        return facultyId == that.facultyId && studentCount == that.studentCount && Objects.equals(facultyName, that.facultyName) && Objects.equals(averageAge, that.averageAge) && Objects.equals(minAge, that.minAge) && Objects.equals(maxAge, that.maxAge);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(facultyId, facultyName, studentCount, averageAge, minAge, maxAge);
+    }
+
+    @Override
+    public String toString() {
+        return "FacultyStats{" + "facultyId=" + facultyId + ", facultyName='" + facultyName + '\'' + ", studentCount=" + studentCount + ", averageAge=" + averageAge + ", minAge=" + minAge + ", maxAge=" + maxAge + '}';
+    }
+}
@@ -0,0 +1,50 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+public class FacultyStatsReport {
+
+    private final String longestName;
+    private final List<FacultyStats> faculties;
+
+    public FacultyStatsReport(String longestName, List<FacultyStats> faculties) {
+        this.longestName = longestName;
+        this.faculties = List.copyOf(faculties);
+    }
+
+    public static FacultyStatsReport of(List<FacultyStats> faculties) {
+        String longestName = null;
+        for (FacultyStats faculty : faculties) {
+            if (faculty.getFacultyName() != null && (longestName == null || faculty.getFacultyName().length() > longestName.length())) {
+                longestName = faculty.getFacultyName();
+            }
+        }
+        return new FacultyStatsReport(longestName, faculties);
+    }
+
+    public String getLongestName() {
+        return longestName;
+    }
+
+    public List<FacultyStats> getFaculties() {
+        return faculties;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        FacultyStatsReport that = (FacultyStatsReport) o;
+        return Objects.equals(longestName, that.longestName) && Objects.equals(faculties, that.faculties);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(longestName, faculties);
+    }
+
+    @Override
+    public String toString() {
+        return "FacultyStatsReport{" + "longestName='" + longestName + '\'' + ", faculties=" + faculties + '}';
+    }
+}
@@ -0,0 +1,45 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Objects;
+
+public class FacultyStudentName {
+
+    private final long facultyId;
+    private final String facultyName;
+    private final String studentName;
+
+    public FacultyStudentName(long facultyId, String facultyName, String studentName) {
+        this.facultyId = facultyId;
+        this.facultyName = facultyName;
+        this.studentName = studentName;
+    }
+
+    public long getFacultyId() {
+        return facultyId;
+    }
+
+    public String getFacultyName() {
+        return facultyName;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        FacultyStudentName that = (FacultyStudentName) o;
+        return facultyId == that.facultyId && Objects.equals(facultyName, that.facultyName) && Objects.equals(studentName, that.studentName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(facultyId, facultyName, studentName);
+    }
+
+    @Override
+    public String toString() {
+        return "FacultyStudentName{" + "facultyId=" + facultyId + ", facultyName='" + facultyName + '\'' + ", studentName='" + studentName + '\'' + '}';
+    }
+}
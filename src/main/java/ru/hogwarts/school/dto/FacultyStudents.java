@@ -0,0 +1,46 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+public class FacultyStudents {
+
+    private final long facultyId;
+    private final String facultyName;
+    private final List<String> studentNames;
+
+    public FacultyStudents(long facultyId, String facultyName, List<String> studentNames) {
+        this.facultyId = facultyId;
+        this.facultyName = facultyName;
+        this.studentNames = List.copyOf(studentNames);
+    }
+
+    public long getFacultyId() {
+        return facultyId;
+    }
+
+    public String getFacultyName() {
+        return facultyName;
+    }
+
+    public List<String> getStudentNames() {
+        return studentNames;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        FacultyStudents that = (FacultyStudents) o;
+        return facultyId == that.facultyId && Objects.equals(facultyName, that.facultyName) && Objects.equals(studentNames, that.studentNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(facultyId, facultyName, studentNames);
+    }
+
+    @Override
+    public String toString() {
+        return "FacultyStudents{" + "facultyId=" + facultyId + ", facultyName='" + facultyName + '\'' + ", studentNames=" + studentNames + '}';
+    }
+}
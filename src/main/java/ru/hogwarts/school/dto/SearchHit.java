@@ -0,0 +1,57 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Objects;
+
+public class SearchHit {
+
+    private final String type;
+    private final long id;
+    private final String field;
+    private final String text;
+    private final double score;
+
+    public SearchHit(String type, long id, String field, String text, double score) {
+        this.type = type;
+        this.id = id;
+        this.field = field;
+        this.text = text;
+        this.score = score;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        SearchHit searchHit = (SearchHit) o;
+        return id == searchHit.id && Double.compare(score, searchHit.score) == 0 && Objects.equals(type, searchHit.type) && Objects.equals(field, searchHit.field) && Objects.equals(text, searchHit.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, id, field, text, score);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHit{" + "type='" + type + '\'' + ", id=" + id + ", field='" + field + '\'' + ", text='" + text + '\'' + ", score=" + score + '}';
+    }
+}
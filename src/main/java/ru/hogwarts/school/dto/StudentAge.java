@@ -0,0 +1,39 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Objects;
+
+public class StudentAge {
+
+    private final long id;
+    private final int age;
+
+    public StudentAge(long id, int age) {
+        this.id = id;
+        this.age = age;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        StudentAge that = (StudentAge) o;
+        return id == that.id && age == that.age;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, age);
+    }
+
+    @Override
+    public String toString() {
+        return "StudentAge{" + "id=" + id + ", age=" + age + '}';
+    }
+}
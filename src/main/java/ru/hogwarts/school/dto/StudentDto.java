@@ -0,0 +1,51 @@
+package ru.hogwarts.school.dto;
+
+import ru.hogwarts.school.model.Student;
+
+import java.util.Objects;
+
+public class StudentDto {
+
+    private final long id;
+    private final String name;
+    private final int age;
+
+    public StudentDto(long id, String name, int age) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+    }
+
+    public static StudentDto from(Student student) {
+        return new StudentDto(student.getId(), student.getName(), student.getAge());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        StudentDto that = (StudentDto) o;
+        return id == that.id && age == that.age && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, age);
+    }
+
+    @Override
+    public String toString() {
+        return "StudentDto{" + "id=" + id + ", name='" + name + '\'' + ", age=" + age + '}';
+    }
+}
@@ -0,0 +1,39 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Objects;
+
+public class StudentImportError {
+
+    private final long line;
+    private final String message;
+
+    public StudentImportError(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        StudentImportError that = (StudentImportError) o;
+        return line == that.line && Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(line, message);
+    }
+
+    @Override
+    public String toString() {
+        return "StudentImportError{" + "line=" + line + ", message='" + message + '\'' + '}';
+    }
+}
@@ -0,0 +1,44 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+public class StudentImportResult {
+
+    private final long imported;
+    private final List<StudentImportError> errors;
+
+    public StudentImportResult(long imported, List<StudentImportError> errors) {
+        this.imported = imported;
+        this.errors = List.copyOf(errors);
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public int getFailed() {
+        return errors.size();
+    }
+
+    public List<StudentImportError> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        StudentImportResult that = (StudentImportResult) o;
+        return imported == that.imported && Objects.equals(errors, that.errors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(imported, errors);
+    }
+
+    @Override
+    public String toString() {
+        return "StudentImportResult{" + "imported=" + imported + ", errors=" + errors + '}';
+    }
+}
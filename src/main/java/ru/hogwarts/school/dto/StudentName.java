@@ -0,0 +1,39 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Objects;
+
+public class StudentName {
+
+    private final long id;
+    private final String name;
+
+    public StudentName(long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        StudentName that = (StudentName) o;
+        return id == that.id && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name);
+    }
+
+    @Override
+    public String toString() {
+        return "StudentName{" + "id=" + id + ", name='" + name + '\'' + '}';
+    }
+}
@@ -0,0 +1,58 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Map;
+import java.util.Objects;
+
+public class StudentStats {
+
+    private final long count;
+    private final double averageAge;
+    private final Integer minAge;
+    private final Integer maxAge;
+    private final Map<Integer, Long> ageHistogram;
+
+    public StudentStats(long count, double averageAge, Integer minAge, Integer maxAge, Map<Integer, Long> ageHistogram) {
+        this.count = count;
+        this.averageAge = averageAge;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.ageHistogram = ageHistogram;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAverageAge() {
+        return averageAge;
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public Map<Integer, Long> getAgeHistogram() {
+        return ageHistogram;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        StudentStats that = (StudentStats) o;
+        return count == that.count && Double.compare(averageAge, that.averageAge) == 0 && Objects.equals(minAge, that.minAge) && Objects.equals(maxAge, that.maxAge) && Objects.equals(ageHistogram, that.ageHistogram);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(count, averageAge, minAge, maxAge, ageHistogram);
+    }
+
+    @Override
+    public String toString() {
+        return "StudentStats{" + "count=" + count + ", averageAge=" + averageAge + ", minAge=" + minAge + ", maxAge=" + maxAge + ", ageHistogram=" + ageHistogram + '}';
+    }
+}
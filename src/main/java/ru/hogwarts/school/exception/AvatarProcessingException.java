@@ -0,0 +1,11 @@
+package ru.hogwarts.school.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class AvatarProcessingException extends RuntimeException {
+    public AvatarProcessingException(String message) {
+        super(message);
+    }
+}
@@ -5,20 +5,23 @@ import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcType;
 import org.hibernate.type.descriptor.jdbc.BinaryJdbcType;
 
-import java.util.Arrays;
 import java.util.Objects;
 
 @Entity
 public class Avatar {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "avatar_seq")
+    @SequenceGenerator(name = "avatar_seq", sequenceName = "avatar_seq", allocationSize = 50)
     private Long id;
 
     private String filePath;
     private long fileSize;
     private String mediaType;
 
+    @Enumerated(EnumType.STRING)
+    private AvatarStatus status;
+
     @Lob
     @JdbcType(BinaryJdbcType.class)
     @Column(columnDefinition = "bytea")
@@ -72,6 +75,14 @@ public class Avatar {
         this.mediaType = mediaType;
     }
 
+    public AvatarStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AvatarStatus status) {
+        this.status = status;
+    }
+
     public byte[] getData() {
         return data;
     }
@@ -92,16 +103,16 @@ public class Avatar {
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         Avatar avatar = (Avatar) o;
-        return fileSize == avatar.fileSize && Objects.equals(id, avatar.id) && Objects.equals(filePath, avatar.filePath) && Objects.equals(mediaType, avatar.mediaType) && Objects.deepEquals(data, avatar.data) && Objects.equals(student, avatar.student);
+        return fileSize == avatar.fileSize && Objects.equals(id, avatar.id) && Objects.equals(filePath, avatar.filePath) && Objects.equals(mediaType, avatar.mediaType) && status == avatar.status;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, filePath, fileSize, mediaType, Arrays.hashCode(data), student);
+        return Objects.hash(id, filePath, fileSize, mediaType, status);
     }
 
     @Override
     public String toString() {
-        return "Avatar{" + "id=" + id + ", filePath='" + filePath + '\'' + ", fileSize=" + fileSize + ", mediaType='" + mediaType + '\'' + ", data=" + Arrays.toString(data) + ", student=" + student + '}';
+        return "Avatar{" + "id=" + id + ", filePath='" + filePath + '\'' + ", fileSize=" + fileSize + ", mediaType='" + mediaType + '\'' + ", status=" + status + ", dataSize=" + (data != null ? data.length : 0) + '}';
     }
 }
@@ -0,0 +1,111 @@
+package ru.hogwarts.school.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcType;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.type.descriptor.jdbc.BinaryJdbcType;
+
+import java.util.Objects;
+
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"avatar_id", "width"}))
+public class AvatarRendition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "avatar_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private Avatar avatar;
+
+    private int width;
+    private String filePath;
+    private String mediaType;
+
+    @Lob
+    @JdbcType(BinaryJdbcType.class)
+    @Column(columnDefinition = "bytea")
+    @JsonIgnore
+    private byte[] data;
+
+    public AvatarRendition() {
+    }
+
+    public AvatarRendition(Avatar avatar, int width, String filePath, String mediaType, byte[] data) {
+        this.avatar = avatar;
+        this.width = width;
+        this.filePath = filePath;
+        this.mediaType = mediaType;
+        this.data = data;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Avatar getAvatar() {
+        return avatar;
+    }
+
+    public void setAvatar(Avatar avatar) {
+        this.avatar = avatar;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public void setMediaType(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        AvatarRendition that = (AvatarRendition) o;
+        return width == that.width && Objects.equals(id, that.id) && Objects.equals(filePath, that.filePath);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, width, filePath);
+    }
+
+    @Override
+    public String toString() {
+        return "AvatarRendition{" + "id=" + id + ", width=" + width + ", filePath='" + filePath + '\'' + ", mediaType='" + mediaType + '\'' + ", size=" + (data != null ? data.length : 0) + '}';
+    }
+}
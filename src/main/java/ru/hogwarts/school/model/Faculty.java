@@ -2,6 +2,7 @@ package ru.hogwarts.school.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.Collection;
 import java.util.Objects;
@@ -10,13 +11,15 @@ import java.util.Objects;
 public class Faculty {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "faculty_seq")
+    @SequenceGenerator(name = "faculty_seq", sequenceName = "faculty_seq", allocationSize = 50)
     private long id;
 
     private String name;
     private String color;
 
     @OneToMany(mappedBy = "faculty", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JsonManagedReference
     private Collection<Student> students;
 
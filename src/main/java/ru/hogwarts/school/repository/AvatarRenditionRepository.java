@@ -0,0 +1,19 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.model.AvatarRendition;
+
+import java.util.Optional;
+
+public interface AvatarRenditionRepository extends JpaRepository<AvatarRendition, Long> {
+    Optional<AvatarRendition> findByAvatarIdAndWidth(Long avatarId, int width);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AvatarRendition r WHERE r.avatar.id = :avatarId")
+    int deleteByAvatarId(@Param("avatarId") Long avatarId);
+}
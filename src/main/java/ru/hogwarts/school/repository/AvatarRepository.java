@@ -1,14 +1,51 @@
 package ru.hogwarts.school.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.AvatarInfo;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarStatus;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AvatarRepository extends JpaRepository<Avatar, Long> {
     Optional<Avatar> findByStudentId(Long studentId);
 
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarInfo(a.id, a.student.id, a.filePath, a.fileSize, a.mediaType, a.status) FROM Avatar a WHERE a.student.id IN :studentIds")
+    List<AvatarInfo> findAllInfoByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+
     Page<Avatar> findAll(Pageable pageable);
+
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarInfo(a.id, a.student.id, a.filePath, a.fileSize, a.mediaType, a.status) FROM Avatar a WHERE a.student.id = :studentId")
+    Optional<AvatarInfo> findInfoByStudentId(@Param("studentId") Long studentId);
+
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarInfo(a.id, a.student.id, a.filePath, a.fileSize, a.mediaType, a.status) FROM Avatar a WHERE a.id = :id")
+    Optional<AvatarInfo> findInfoById(@Param("id") Long id);
+
+    @Query(value = "SELECT new ru.hogwarts.school.dto.AvatarInfo(a.id, a.student.id, a.filePath, a.fileSize, a.mediaType, a.status) FROM Avatar a",
+            countQuery = "SELECT COUNT(a) FROM Avatar a")
+    Page<AvatarInfo> findAllInfo(Pageable pageable);
+
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarInfo(a.id, a.student.id, a.filePath, a.fileSize, a.mediaType, a.status) FROM Avatar a WHERE a.id > :afterId ORDER BY a.id")
+    List<AvatarInfo> findInfoAfter(@Param("afterId") Long afterId, Limit limit);
+
+    long countByFilePath(String filePath);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Avatar a SET a.filePath = :filePath, a.fileSize = :fileSize, a.mediaType = :mediaType, a.data = :data, a.status = :status WHERE a.id = :id")
+    int updateContent(@Param("id") Long id, @Param("filePath") String filePath, @Param("fileSize") long fileSize, @Param("mediaType") String mediaType, @Param("data") byte[] data, @Param("status") AvatarStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Avatar a SET a.data = :data, a.status = :status WHERE a.id = :id AND a.filePath = :filePath")
+    int updatePreview(@Param("id") Long id, @Param("filePath") String filePath, @Param("data") byte[] data, @Param("status") AvatarStatus status);
 }
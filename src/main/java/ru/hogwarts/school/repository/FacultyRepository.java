@@ -1,14 +1,45 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.FacultyStats;
 import ru.hogwarts.school.model.Faculty;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface FacultyRepository extends JpaRepository<Faculty, Long> {
     Collection<Faculty> findFacultyByColor(String color);
 
     Collection<Faculty> findByNameContainingIgnoreCaseOrColorContainingIgnoreCase(String name, String color);
-}
 
+    @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END FROM Faculty f WHERE lower(f.name) = lower(:name) AND f.id <> :id")
+    boolean existsByNameIgnoreCaseAndIdNot(@Param("name") String name, @Param("id") long id);
+
+    @EntityGraph(attributePaths = "students")
+    Optional<Faculty> findWithStudentsById(Long id);
+
+    @EntityGraph(attributePaths = "students")
+    @Query("SELECT DISTINCT f FROM Faculty f")
+    List<Faculty> findAllWithStudents();
+
+    @Query("SELECT new ru.hogwarts.school.dto.FacultyDto(f.id, f.name, f.color) FROM Faculty f")
+    List<FacultyDto> findAllSummaries();
+
+    @Query("SELECT new ru.hogwarts.school.dto.FacultyStats(f.id, f.name, COUNT(s), AVG(s.age), MIN(s.age), MAX(s.age)) "
+            + "FROM Faculty f LEFT JOIN f.students s GROUP BY f.id, f.name ORDER BY f.id")
+    List<FacultyStats> findFacultyStats();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT f FROM Faculty f ORDER BY f.id")
+    Stream<Faculty> streamAll();
+}
@@ -1,12 +1,23 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import ru.hogwarts.school.dto.AgeCount;
+import ru.hogwarts.school.dto.FacultyStudentName;
+import ru.hogwarts.school.dto.StudentAge;
+import ru.hogwarts.school.dto.StudentName;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface StudentRepository extends JpaRepository<Student, Long> {
 
@@ -29,4 +40,37 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     Collection<Student> theLast5Students();
 
     Student[] findFirst6ByOrderByIdAsc();
+
+    @Query("SELECT s FROM Student s WHERE s.id > :afterId ORDER BY s.id")
+    List<Student> findAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentName(s.id, s.name) FROM Student s "
+            + "WHERE c_collate(lower(s.name)) LIKE :pattern ESCAPE '\\' "
+            + "AND c_collate(lower(s.name)) >= :afterName "
+            + "AND (c_collate(lower(s.name)) > :afterName OR s.id > :afterId) "
+            + "ORDER BY c_collate(lower(s.name)), s.id")
+    List<StudentName> findNamesByPrefix(@Param("pattern") String pattern, @Param("afterName") String afterName, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentName(s.id, s.name) FROM Student s")
+    List<StudentName> findAllNames();
+
+    @Query("SELECT lower(s.name) FROM Student s WHERE s.id = :id")
+    Optional<String> findLowerNameById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT new ru.hogwarts.school.dto.FacultyStudentName(f.id, f.name, s.name) FROM Student s JOIN s.faculty f "
+            + "WHERE length(s.name) >= :minNameLength ORDER BY f.id, s.name")
+    List<FacultyStudentName> findFacultyStudentNames(@Param("minNameLength") int minNameLength);
+
+    @Query("SELECT new ru.hogwarts.school.dto.AgeCount(s.age, COUNT(s)) FROM Student s GROUP BY s.age")
+    List<AgeCount> countByAge();
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentAge(s.id, s.age) FROM Student s ORDER BY s.age, s.id")
+    List<StudentAge> findAllAges();
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentAge(s.id, s.age) FROM Student s WHERE s.id IN :ids")
+    List<StudentAge> findAgesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT s FROM Student s ORDER BY s.id")
+    Stream<Student> streamAll();
 }
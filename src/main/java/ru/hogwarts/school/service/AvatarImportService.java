@@ -0,0 +1,217 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.dto.AvatarImportResult;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarStatus;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRenditionRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.storage.AvatarStorage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+@Service
+public class AvatarImportService {
+    private final AvatarRepository avatarRepository;
+    private final StudentRepository studentRepository;
+    private final AvatarStorage avatarStorage;
+    private final AvatarPreviewGenerator avatarPreviewGenerator;
+    private final AvatarRenditionRepository avatarRenditionRepository;
+    private final AvatarPreviewCache avatarPreviewCache;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final Logger logger = LoggerFactory.getLogger(AvatarImportService.class);
+
+    private static final Pattern STUDENT_ID = Pattern.compile("(\\d+)(?:_[^/]*)?\\.[^./]+");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${avatar.max-file-size:2MB}")
+    private DataSize maxFileSize;
+
+    public AvatarImportService(AvatarRepository avatarRepository, StudentRepository studentRepository, AvatarStorage avatarStorage, AvatarPreviewGenerator avatarPreviewGenerator, AvatarRenditionRepository avatarRenditionRepository, AvatarPreviewCache avatarPreviewCache, @Qualifier("avatarImportExecutor") ThreadPoolTaskExecutor executor, TransactionTemplate transactionTemplate) {
+        this.avatarRepository = avatarRepository;
+        this.studentRepository = studentRepository;
+        this.avatarStorage = avatarStorage;
+        this.avatarPreviewGenerator = avatarPreviewGenerator;
+        this.avatarRenditionRepository = avatarRenditionRepository;
+        this.avatarPreviewCache = avatarPreviewCache;
+        this.executor = executor;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public List<AvatarImportResult> importArchive(MultipartFile archive) throws IOException {
+        logger.info("Was invoked method for importing avatars from archive");
+        List<CompletableFuture<ImportedEntry>> entries = new ArrayList<>();
+        Set<Long> seenStudentIds = new HashSet<>();
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(archive.getInputStream(), BUFFER_SIZE))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    entries.add(readEntry(zip, entry.getName(), seenStudentIds));
+                }
+            }
+        }
+
+        List<ImportedEntry> imported = entries.stream().map(CompletableFuture::join).toList();
+        logger.debug("Archive contained {} entries", imported.size());
+        return save(imported);
+    }
+
+    private CompletableFuture<ImportedEntry> readEntry(ZipInputStream zip, String entryName, Set<Long> seenStudentIds) throws IOException {
+        String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+        Matcher matcher = STUDENT_ID.matcher(fileName);
+        if (!matcher.matches()) {
+            return CompletableFuture.completedFuture(ImportedEntry.failed(entryName, null, "Имя файла должно начинаться с id студента"));
+        }
+        Long studentId = Long.valueOf(matcher.group(1));
+        if (!seenStudentIds.add(studentId)) {
+            return CompletableFuture.completedFuture(ImportedEntry.failed(entryName, studentId, "Аватар для студента уже есть в архиве"));
+        }
+        Optional<MediaType> mediaType = MediaTypeFactory.getMediaType(fileName).filter(type -> "image".equals(type.getType()));
+        if (mediaType.isEmpty()) {
+            return CompletableFuture.completedFuture(ImportedEntry.failed(entryName, studentId, "Файл не является изображением"));
+        }
+        byte[] content = readLimited(zip);
+        if (content == null) {
+            return CompletableFuture.completedFuture(ImportedEntry.failed(entryName, studentId, "Размер файла превышает " + maxFileSize.toMegabytes() + "MB"));
+        }
+        return CompletableFuture.supplyAsync(() -> process(entryName, studentId, mediaType.get().toString(), content), executor);
+    }
+
+    private ImportedEntry process(String entryName, Long studentId, String mediaType, byte[] content) {
+        try {
+            byte[] preview = avatarPreviewGenerator.generatePreview(content, mediaType);
+            String blob = avatarStorage.store(new ByteArrayResource(content));
+            return new ImportedEntry(entryName, studentId, mediaType, content.length, blob, preview, null);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to import avatar entry {}", entryName, e);
+            return ImportedEntry.failed(entryName, studentId, "Не удалось обработать изображение: " + e.getMessage());
+        }
+    }
+
+    private List<AvatarImportResult> save(List<ImportedEntry> imported) {
+        List<ImportedEntry> processed = imported.stream().filter(ImportedEntry::isProcessed).toList();
+        Map<ImportedEntry, Long> savedIds = new HashMap<>();
+        Map<ImportedEntry, String> saveErrors = new HashMap<>();
+        try {
+            savedIds.putAll(transactionTemplate.execute(status -> saveEntries(processed)));
+        } catch (DataAccessException e) {
+            logger.warn("Unable to save {} imported avatars in one batch, saving them one by one", processed.size(), e);
+            for (ImportedEntry entry : processed) {
+                try {
+                    savedIds.putAll(transactionTemplate.execute(status -> saveEntries(List.of(entry))));
+                } catch (DataAccessException entryError) {
+                    logger.error("Unable to save imported avatar entry {}", entry.entryName(), entryError);
+                    saveErrors.put(entry, "Не удалось сохранить аватар: " + entryError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        savedIds.keySet().forEach(entry -> avatarPreviewCache.invalidate(entry.studentId()));
+
+        List<AvatarImportResult> results = new ArrayList<>(imported.size());
+        for (ImportedEntry entry : imported) {
+            Long avatarId = savedIds.get(entry);
+            if (avatarId != null) {
+                results.add(AvatarImportResult.success(entry.entryName(), entry.studentId(), avatarId));
+                continue;
+            }
+            if (entry.isProcessed()) {
+                avatarStorage.release(entry.filePath());
+            }
+            if (entry.error() != null) {
+                results.add(AvatarImportResult.failure(entry.entryName(), entry.studentId(), entry.error()));
+            } else if (saveErrors.containsKey(entry)) {
+                results.add(AvatarImportResult.failure(entry.entryName(), entry.studentId(), saveErrors.get(entry)));
+            } else {
+                results.add(AvatarImportResult.failure(entry.entryName(), entry.studentId(), "Студент с id " + entry.studentId() + " не найден"));
+            }
+        }
+        logger.info("Imported {} of {} avatars from archive", savedIds.size(), imported.size());
+        return results;
+    }
+
+    private Map<ImportedEntry, Long> saveEntries(List<ImportedEntry> entries) {
+        Set<Long> studentIds = entries.stream().map(ImportedEntry::studentId).collect(Collectors.toSet());
+        Map<Long, Student> students = studentRepository.findAllById(studentIds).stream().collect(Collectors.toMap(Student::getId, Function.identity()));
+        Map<Long, AvatarInfo> existing = avatarRepository.findAllInfoByStudentIdIn(students.keySet()).stream().collect(Collectors.toMap(AvatarInfo::getStudentId, Function.identity()));
+
+        // Existing rows are rewritten in place so their old preview blobs are never loaded.
+        Map<ImportedEntry, Long> savedIds = new HashMap<>();
+        Map<ImportedEntry, Avatar> toInsert = new LinkedHashMap<>();
+        for (ImportedEntry entry : entries) {
+            Student student = students.get(entry.studentId());
+            if (student == null) {
+                continue;
+            }
+            AvatarInfo previous = existing.get(student.getId());
+            if (previous != null && avatarRepository.updateContent(previous.getId(), entry.filePath(), entry.fileSize(), entry.mediaType(), entry.preview(), AvatarStatus.READY) > 0) {
+                if (!entry.filePath().equals(previous.getFilePath())) {
+                    avatarRenditionRepository.deleteByAvatarId(previous.getId());
+                    avatarStorage.release(previous.getFilePath());
+                }
+                savedIds.put(entry, previous.getId());
+                continue;
+            }
+            Avatar avatar = new Avatar(entry.filePath(), entry.fileSize(), entry.mediaType(), entry.preview(), student);
+            avatar.setStatus(AvatarStatus.READY);
+            toInsert.put(entry, avatar);
+        }
+        avatarRepository.saveAll(toInsert.values());
+        avatarRepository.flush();
+
+        toInsert.forEach((entry, avatar) -> savedIds.put(entry, avatar.getId()));
+        return savedIds;
+    }
+
+    private byte[] readLimited(InputStream is) throws IOException {
+        long limit = maxFileSize.toBytes();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            if (baos.size() + read > limit) {
+                return null;
+            }
+            baos.write(buffer, 0, read);
+        }
+        return baos.toByteArray();
+    }
+
+    private record ImportedEntry(String entryName, Long studentId, String mediaType, long fileSize, String filePath, byte[] preview, String error) {
+
+        static ImportedEntry failed(String entryName, Long studentId, String error) {
+            return new ImportedEntry(entryName, studentId, null, 0, null, null, error);
+        }
+
+        boolean isProcessed() {
+            return error == null;
+        }
+    }
+}
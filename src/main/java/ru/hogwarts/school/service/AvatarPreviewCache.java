@@ -0,0 +1,39 @@
+package ru.hogwarts.school.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.dto.AvatarPreview;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+@Component
+public class AvatarPreviewCache {
+    private final Cache<Long, AvatarPreview> cache;
+
+    private static final Logger logger = LoggerFactory.getLogger(AvatarPreviewCache.class);
+
+    public AvatarPreviewCache(@Value("${avatar.preview.cache.max-bytes:33554432}") long maxBytes,
+                              @Value("${avatar.preview.cache.ttl:PT10M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long studentId, AvatarPreview preview) -> preview.getData() == null ? 1 : preview.getData().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Loading under the entry lock makes a concurrent invalidate wait for the load and then drop its result.
+    public AvatarPreview get(Long studentId, Function<Long, AvatarPreview> loader) {
+        return cache.get(studentId, loader);
+    }
+
+    public void invalidate(Long studentId) {
+        logger.debug("Invalidating cached avatar preview for student {}", studentId);
+        cache.invalidate(studentId);
+    }
+}
@@ -0,0 +1,211 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.exception.ServiceUnavailableException;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarStatus;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.storage.AvatarStorage;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class AvatarPreviewGenerator {
+    private final AvatarRepository avatarRepository;
+    private final ThreadPoolTaskExecutor executor;
+    private final AvatarPreviewCache avatarPreviewCache;
+    private final AvatarStorage avatarStorage;
+    private final ImageDecodeGate imageDecodeGate;
+    private final Set<Long> deferred = ConcurrentHashMap.newKeySet();
+
+    private static final Logger logger = LoggerFactory.getLogger(AvatarPreviewGenerator.class);
+
+    private static final int PREVIEW_WIDTH = 100;
+    private static final String DEFAULT_MEDIA_TYPE = "image/png";
+    private static final int BYTES_PER_PIXEL = 4;
+
+    public AvatarPreviewGenerator(AvatarRepository avatarRepository, @Qualifier("avatarPreviewExecutor") ThreadPoolTaskExecutor executor, AvatarPreviewCache avatarPreviewCache, AvatarStorage avatarStorage, ImageDecodeGate imageDecodeGate) {
+        this.avatarRepository = avatarRepository;
+        this.executor = executor;
+        this.avatarPreviewCache = avatarPreviewCache;
+        this.avatarStorage = avatarStorage;
+        this.imageDecodeGate = imageDecodeGate;
+    }
+
+    public ImageDecodeGate.Permit admit(InputStreamSource source) throws IOException {
+        return imageDecodeGate.acquire(estimateDecodeBytes(source));
+    }
+
+    // A queued preview keeps the encoded upload in memory until it runs, so those bytes are reserved along with the pixels.
+    public ImageDecodeGate.Permit admitQueued(byte[] content) throws IOException {
+        return imageDecodeGate.acquire(estimateDecodeBytes(new ByteArrayResource(content)) + content.length);
+    }
+
+    public void submit(Avatar avatar, byte[] content, ImageDecodeGate.Permit permit) {
+        logger.info("Was invoked method for submitting avatar preview generation");
+        Long avatarId = avatar.getId();
+        Long studentId = avatar.getStudent().getId();
+        String filePath = avatar.getFilePath();
+        String mediaType = avatar.getMediaType();
+        try {
+            execute(avatarId, studentId, filePath, mediaType, content, permit);
+        } catch (TaskRejectedException e) {
+            logger.warn("Preview queue is full, avatar {} stays pending until the next retry", avatarId);
+            deferred.add(avatarId);
+        }
+    }
+
+    // Rejected previews are not generated on the caller's thread: the upload has already returned and the content is reloaded from storage here.
+    @Scheduled(initialDelayString = "${avatar.preview.retry-interval:PT30S}", fixedDelayString = "${avatar.preview.retry-interval:PT30S}")
+    public void retryDeferred() {
+        if (deferred.isEmpty()) {
+            return;
+        }
+        logger.info("Was invoked method for retrying {} deferred avatar previews", deferred.size());
+        for (Long avatarId : deferred) {
+            Optional<AvatarInfo> avatar = avatarRepository.findInfoById(avatarId);
+            if (avatar.isEmpty() || avatar.get().getStatus() != AvatarStatus.PENDING) {
+                deferred.remove(avatarId);
+                continue;
+            }
+            AvatarInfo info = avatar.get();
+            try {
+                byte[] content = avatarStorage.load(info.getFilePath()).getContentAsByteArray();
+                execute(info.getId(), info.getStudentId(), info.getFilePath(), info.getMediaType(), content, admitQueued(content));
+                deferred.remove(avatarId);
+            } catch (TaskRejectedException | ServiceUnavailableException e) {
+                logger.debug("Preview queue is still full, {} avatar previews stay deferred", deferred.size());
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Deferred preview for avatar {} could not be queued", avatarId, e);
+                deferred.remove(avatarId);
+                avatarRepository.updatePreview(info.getId(), info.getFilePath(), null, AvatarStatus.FAILED);
+                avatarPreviewCache.invalidate(info.getStudentId());
+            }
+        }
+    }
+
+    private void execute(Long avatarId, Long studentId, String filePath, String mediaType, byte[] content, ImageDecodeGate.Permit permit) {
+        try {
+            executor.execute(() -> {
+                try (permit) {
+                    generate(avatarId, studentId, filePath, mediaType, content);
+                }
+            });
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    public String outputMediaType(String mediaType) {
+        if (mediaType != null && ImageIO.getImageWritersByMIMEType(mediaType).hasNext()) {
+            return mediaType;
+        }
+        return DEFAULT_MEDIA_TYPE;
+    }
+
+    public byte[] resize(String filePath, int width, String mediaType) throws IOException {
+        logger.info("Was invoked method for resizing image");
+        Resource resource = avatarStorage.load(filePath);
+        try (ImageDecodeGate.Permit permit = admit(resource)) {
+            return scale(decode(resource), width, mediaType);
+        }
+    }
+
+    public byte[] generatePreview(byte[] content, String mediaType) throws IOException {
+        logger.info("Was invoked method for generating preview from memory");
+        ByteArrayResource resource = new ByteArrayResource(content);
+        try (ImageDecodeGate.Permit permit = admit(resource)) {
+            return scale(decode(resource), PREVIEW_WIDTH, mediaType);
+        }
+    }
+
+    private long estimateDecodeBytes(InputStreamSource source) throws IOException {
+        try (InputStream is = source.getInputStream(); ImageInputStream iis = ImageIO.createImageInputStream(is)) {
+            Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+            if (readers == null || !readers.hasNext()) {
+                return 0;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                return (long) reader.getWidth(0) * reader.getHeight(0) * BYTES_PER_PIXEL;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage decode(InputStreamSource source) throws IOException {
+        BufferedImage image;
+        try (InputStream is = source.getInputStream()) {
+            image = ImageIO.read(is);
+        }
+        if (image == null) {
+            logger.error("Unable to read image");
+            throw new IOException("Не удалось прочитать изображение");
+        }
+        return image;
+    }
+
+    private byte[] scale(BufferedImage image, int width, String mediaType) throws IOException {
+        int targetWidth = Math.min(width, image.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) image.getHeight() * targetWidth / image.getWidth()));
+        BufferedImage preview = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = preview.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        graphics.dispose();
+
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            ImageIO.write(preview, formatName(outputMediaType(mediaType)), baos);
+            return baos.toByteArray();
+        }
+    }
+
+    private void generate(Long avatarId, Long studentId, String filePath, String mediaType, byte[] content) {
+        logger.info("Was invoked method for generating avatar preview");
+        byte[] data = null;
+        AvatarStatus status;
+        try {
+            data = scale(decode(new ByteArrayResource(content)), PREVIEW_WIDTH, mediaType);
+            status = AvatarStatus.READY;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Preview generation for avatar {} failed", avatarId, e);
+            status = AvatarStatus.FAILED;
+        }
+
+        if (avatarRepository.updatePreview(avatarId, filePath, data, status) == 0) {
+            logger.warn("Avatar {} was removed or replaced while its preview was generated", avatarId);
+        }
+        avatarPreviewCache.invalidate(studentId);
+    }
+
+    private String formatName(String mediaType) {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(mediaType);
+        return writers.next().getOriginatingProvider().getFormatNames()[0];
+    }
+}
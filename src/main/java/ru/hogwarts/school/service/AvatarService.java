@@ -4,43 +4,62 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.dto.AvatarPreview;
+import ru.hogwarts.school.exception.AvatarProcessingException;
+import ru.hogwarts.school.exception.BadRequestException;
+import ru.hogwarts.school.exception.NotFoundException;
 import ru.hogwarts.school.exception.StudentNotFoundException;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarRendition;
+import ru.hogwarts.school.model.AvatarStatus;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRenditionRepository;
 import ru.hogwarts.school.repository.AvatarRepository;
 import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.storage.AvatarStorage;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
-
-import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
-@Transactional
 public class AvatarService {
     private final AvatarRepository avatarRepository;
     private final StudentRepository studentRepository;
+    private final AvatarStorage avatarStorage;
+    private final AvatarPreviewGenerator avatarPreviewGenerator;
+    private final AvatarRenditionRepository avatarRenditionRepository;
+    private final AvatarPreviewCache avatarPreviewCache;
 
     private static final Logger logger = LoggerFactory.getLogger(AvatarService.class);
 
-    private static final int BUFFER_SIZE = 1024;
+    @Value("${avatar.max-file-size:2MB}")
+    private DataSize maxFileSize;
 
-    @Value("${path.to.avatars.folder}")
-    private String avatarsDir;
+    @Value("${avatar.rendition.widths:50,100,200,400}")
+    private Set<Integer> renditionWidths;
 
-    public AvatarService(AvatarRepository avatarRepository, StudentRepository studentRepository) {
+    public AvatarService(AvatarRepository avatarRepository, StudentRepository studentRepository, AvatarStorage avatarStorage, AvatarPreviewGenerator avatarPreviewGenerator, AvatarRenditionRepository avatarRenditionRepository, AvatarPreviewCache avatarPreviewCache) {
         this.avatarRepository = avatarRepository;
         this.studentRepository = studentRepository;
+        this.avatarStorage = avatarStorage;
+        this.avatarPreviewGenerator = avatarPreviewGenerator;
+        this.avatarRenditionRepository = avatarRenditionRepository;
+        this.avatarPreviewCache = avatarPreviewCache;
     }
 
     public Avatar uploadAvatar(Long studentId, MultipartFile avatarFile) throws IOException {
@@ -50,22 +69,39 @@ public class AvatarService {
             return new StudentNotFoundException("Студент с id " + studentId + " не найден");
         });
 
-        Path filePath = Path.of(avatarsDir, studentId + "_" + avatarFile.getOriginalFilename());
-        Files.createDirectories(filePath.getParent());
-        Files.deleteIfExists(filePath);
-
-        try (InputStream is = avatarFile.getInputStream(); OutputStream os = Files.newOutputStream(filePath, CREATE_NEW); BufferedInputStream bis = new BufferedInputStream(is, BUFFER_SIZE); BufferedOutputStream bos = new BufferedOutputStream(os, BUFFER_SIZE);) {
-            bis.transferTo(bos);
+        if (avatarFile.getSize() > maxFileSize.toBytes()) {
+            logger.error("Avatar file for student {} is too large: {} bytes", studentId, avatarFile.getSize());
+            throw new BadRequestException("Размер файла превышает " + maxFileSize.toMegabytes() + "MB");
         }
 
-        Avatar avatar = findAvatarByStudentId(studentId).orElse(new Avatar());
-        avatar.setStudent(student);
-        avatar.setFilePath(filePath.toString());
-        avatar.setFileSize(avatarFile.getSize());
-        avatar.setMediaType(avatarFile.getContentType());
-        avatar.setData(generateDataForDB(filePath));
-
-        Avatar savedAvatar = avatarRepository.save(avatar);
+        byte[] content = avatarFile.getBytes();
+        ByteArrayResource payload = new ByteArrayResource(content);
+        ImageDecodeGate.Permit permit = avatarPreviewGenerator.admitQueued(content);
+        Avatar savedAvatar;
+        try {
+            String filePath = avatarStorage.store(payload);
+
+            // The existing row is looked up and rewritten without reading its preview blob.
+            Optional<AvatarInfo> existing = avatarRepository.findInfoByStudentId(studentId);
+            String previousFilePath = existing.map(AvatarInfo::getFilePath).orElse(null);
+            Avatar avatar = new Avatar(filePath, content.length, avatarFile.getContentType(), null, student);
+            avatar.setStatus(AvatarStatus.PENDING);
+            if (existing.isPresent() && avatarRepository.updateContent(existing.get().getId(), filePath, content.length, avatarFile.getContentType(), null, AvatarStatus.PENDING) > 0) {
+                avatar.setId(existing.get().getId());
+                savedAvatar = avatar;
+            } else {
+                savedAvatar = avatarRepository.save(avatar);
+            }
+            avatarPreviewCache.invalidate(studentId);
+            if (previousFilePath != null && !previousFilePath.equals(savedAvatar.getFilePath())) {
+                avatarRenditionRepository.deleteByAvatarId(savedAvatar.getId());
+                avatarStorage.release(previousFilePath);
+            }
+        } catch (IOException | RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+        avatarPreviewGenerator.submit(savedAvatar, content, permit);
         return savedAvatar;
     }
 
@@ -74,63 +110,95 @@ public class AvatarService {
         return avatarRepository.findByStudentId(studentId);
     }
 
-    public byte[] getAvatarFromFile(Long studentId) throws IOException {
+    public Resource getAvatarFromFile(AvatarInfo avatar) throws IOException {
         logger.info("Was invoked method for getting avatar from file");
+        Resource resource = avatarStorage.load(avatar.getFilePath());
+        if (!resource.isReadable()) {
+            logger.error("Avatar file {} is missing or not readable", avatar.getFilePath());
+            throw new NotFoundException("Файл аватара с id " + avatar.getId() + " не найден");
+        }
+        return resource;
+    }
+
+    public byte[] getAvatarFromDb(Long studentId) {
+        logger.info("Was invoked method for getting avatar from db");
         Avatar avatar = findAvatarByStudentId(studentId).orElseThrow(() -> {
             logger.error("Avatar for student with id {} not found", studentId);
             return new StudentNotFoundException("Аватар для студента с id " + studentId + " не найден");
         });
-        Path filePath = Path.of(avatar.getFilePath());
-        return Files.readAllBytes(filePath);
+        return avatar.getData();
     }
 
-    public byte[] getAvatarFromDb(Long studentId) {
-        logger.info("Was invoked method for getting avatar from db");
+    public AvatarPreview getAvatarPreview(Long studentId) {
+        logger.info("Was invoked method for getting avatar preview");
+        return avatarPreviewCache.get(studentId, this::loadAvatarPreview);
+    }
+
+    private AvatarPreview loadAvatarPreview(Long studentId) {
         Avatar avatar = findAvatarByStudentId(studentId).orElseThrow(() -> {
             logger.error("Avatar for student with id {} not found", studentId);
             return new StudentNotFoundException("Аватар для студента с id " + studentId + " не найден");
         });
-        return avatar.getData();
+        if (avatar.getStatus() == AvatarStatus.PENDING || avatar.getStatus() == AvatarStatus.FAILED) {
+            return new AvatarPreview(avatar.getStatus(), avatar.getMediaType(), null, null);
+        }
+        return new AvatarPreview(AvatarStatus.READY, avatar.getMediaType(), avatar.getData(), "\"" + DigestUtils.md5DigestAsHex(avatar.getData()) + "\"");
     }
 
-    public Avatar getAvatarInfo(Long studentId) {
+    public AvatarInfo getAvatarInfo(Long studentId) {
         logger.info("Was invoked method for getting avatar info");
-        return findAvatarByStudentId(studentId).orElseThrow(() -> {
+        return avatarRepository.findInfoByStudentId(studentId).orElseThrow(() -> {
             logger.error("Avatar for student with id {} not found", studentId);
             return new StudentNotFoundException("Аватар для студента с id " + studentId + " не найден");
         });
     }
 
-    private byte[] generateDataForDB(Path filePath) throws IOException {
-        logger.info("Was invoked method for generating data for db");
-        BufferedImage image = ImageIO.read(filePath.toFile());
-        if (image == null) {
-            logger.warn("Image file at {} is corrupted or not an image", filePath);
-            logger.error("Unable to read image");
-            throw new IOException("Не удалось прочитать изображение");
+    public AvatarRendition getAvatarRendition(Long studentId, int width) {
+        logger.info("Was invoked method for getting avatar rendition");
+        logger.debug("Rendition params: studentId={}, width={}", studentId, width);
+        if (!renditionWidths.contains(width)) {
+            logger.error("Rendition width {} is not allowed", width);
+            throw new BadRequestException("Недопустимая ширина превью: " + width + ". Доступные значения: " + new TreeSet<>(renditionWidths));
         }
-
-        int height = image.getHeight() / (image.getWidth() / 100);
-        BufferedImage preview = new BufferedImage(100, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = preview.createGraphics();
-        graphics.drawImage(image, 0, 0, 100, height, null);
-        graphics.dispose();
-
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            ImageIO.write(preview, getExtensions(filePath.getFileName().toString()), baos);
-            return baos.toByteArray();
+        AvatarInfo avatar = getAvatarInfo(studentId);
+        Optional<AvatarRendition> existing = avatarRenditionRepository.findByAvatarIdAndWidth(avatar.getId(), width);
+        if (existing.isPresent() && avatar.getFilePath().equals(existing.get().getFilePath())) {
+            return existing.get();
         }
-    }
 
-    private String getExtensions(String fileName) {
-        logger.info("Was invoked method for getting extensions");
-        return fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
+        AvatarRendition rendition = existing.orElseGet(AvatarRendition::new);
+        rendition.setAvatar(avatarRepository.getReferenceById(avatar.getId()));
+        rendition.setWidth(width);
+        rendition.setFilePath(avatar.getFilePath());
+        rendition.setMediaType(avatarPreviewGenerator.outputMediaType(avatar.getMediaType()));
+        try {
+            rendition.setData(avatarPreviewGenerator.resize(avatar.getFilePath(), width, avatar.getMediaType()));
+        } catch (IOException e) {
+            logger.error("Unable to generate rendition {} for avatar {}", width, avatar.getId(), e);
+            throw new AvatarProcessingException("Не удалось создать превью шириной " + width + " для студента с id " + studentId);
+        }
+        try {
+            return avatarRenditionRepository.save(rendition);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Rendition {} for avatar {} was saved concurrently", width, avatar.getId());
+            return avatarRenditionRepository.findByAvatarIdAndWidth(avatar.getId(), width).orElseThrow(() -> e);
+        }
     }
 
-    public Collection<Avatar> getAllAvatars(int page, int size) {
+    public Collection<AvatarInfo> getAllAvatars(int page, int size) {
         logger.info("Was invoked method for getting all avatars");
         logger.debug("Pagination params: page={}, size={}", page, size);
-        PageRequest pageRequest = PageRequest.of(Math.max(page - 1, 0), size);
-        return avatarRepository.findAll(pageRequest).getContent();
+        PageRequest pageRequest = PageRequest.of(Math.max(page - 1, 0), size, Sort.by("id"));
+        return avatarRepository.findAllInfo(pageRequest).getContent();
+    }
+
+    public List<AvatarInfo> getAvatarsAfter(Long afterId, int limit) {
+        logger.info("Was invoked method for getting avatars after cursor");
+        logger.debug("Keyset params: after={}, limit={}", afterId, limit);
+        if (limit < 1) {
+            logger.error("Limit {} must be positive", limit);
+            throw new BadRequestException("Лимит должен быть больше нуля.");
+        }
+        return avatarRepository.findInfoAfter(afterId == null ? 0L : afterId, Limit.of(limit));
     }
 }
@@ -0,0 +1,42 @@
+package ru.hogwarts.school.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+public class EntityCache<V> {
+    private final String name;
+    private final Cache<Long, V> cache;
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityCache.class);
+
+    public EntityCache(String name, long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    public V get(Long id, Function<Long, V> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void invalidate(Long id) {
+        logger.debug("Invalidating {} cache entry {}", name, id);
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        logger.debug("Invalidating all {} cache entries", name);
+        cache.invalidateAll();
+    }
+}
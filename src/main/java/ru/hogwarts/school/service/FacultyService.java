@@ -3,7 +3,13 @@ package ru.hogwarts.school.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.FacultyStatsReport;
 import ru.hogwarts.school.exception.FacultyDuplicateException;
 import ru.hogwarts.school.exception.FacultyNotFoundException;
 import ru.hogwarts.school.exception.FacultyValidationException;
@@ -13,47 +19,92 @@ import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.FacultyRepository;
 import ru.hogwarts.school.repository.StudentRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
-import java.util.Comparator;
-import java.util.Optional;
+import java.util.List;
 import java.util.stream.Stream;
 
 @Service
 public class FacultyService {
     private final FacultyRepository facultyRepository;
     private final StudentRepository studentRepository;
+    private final NdjsonWriter ndjsonWriter;
+    private final EntityManager entityManager;
+    private final EntityCache<FacultyDto> facultyCache;
+    private final EntityCache<FacultyStatsReport> facultyStatsCache;
+    private final SearchIndex searchIndex;
 
     private static final Logger logger = LoggerFactory.getLogger(FacultyService.class);
 
-    public FacultyService(FacultyRepository facultyRepository, StudentRepository studentRepository) {
+    private static final String NAME_UNIQUE_INDEX = "idx_faculty_name_lower_unique";
+    private static final long STATS_KEY = 0L;
+
+    public FacultyService(FacultyRepository facultyRepository, StudentRepository studentRepository, NdjsonWriter ndjsonWriter, EntityManager entityManager, EntityCache<FacultyDto> facultyCache, EntityCache<FacultyStatsReport> facultyStatsCache, SearchIndex searchIndex) {
         this.facultyRepository = facultyRepository;
         this.studentRepository = studentRepository;
+        this.ndjsonWriter = ndjsonWriter;
+        this.entityManager = entityManager;
+        this.facultyCache = facultyCache;
+        this.facultyStatsCache = facultyStatsCache;
+        this.searchIndex = searchIndex;
     }
 
-    public Faculty createFaculty(Faculty faculty) {
+    public FacultyDto createFaculty(Faculty faculty) {
         logger.info("Was invoked method for creating a new faculty");
-        return facultyRepository.save(faculty);
+        if (faculty.getName() != null && facultyRepository.existsByNameIgnoreCaseAndIdNot(faculty.getName(), faculty.getId())) {
+            logger.error("Faculty with name {} already exists.", faculty.getName());
+            throw new FacultyDuplicateException("Факультет с названием '" + faculty.getName() + "' уже существует");
+        }
+        Faculty saved = save(faculty);
+        facultyStatsCache.invalidateAll();
+        searchIndex.indexFaculty(saved.getId(), saved.getName(), saved.getColor());
+        return FacultyDto.from(saved);
     }
 
-    public Faculty findFacultyById(Long id) {
+    public FacultyDto findFacultyById(Long id, boolean includeStudents) {
         logger.info("Was invoked method for finding a faculty by id");
-        return facultyRepository.findById(id).orElseThrow(() -> {
-            logger.error("Faculty with id {} was not found", id);
-            return new NotFoundException("Факультет с id " + id + " не найден.");
-        });
+        if (includeStudents) {
+            return facultyRepository.findWithStudentsById(id).map(FacultyDto::withStudents).orElseThrow(() -> facultyNotFound(id));
+        }
+        return facultyCache.get(id, key -> facultyRepository.findById(key).map(FacultyDto::from).orElseThrow(() -> facultyNotFound(key)));
     }
 
-    public Collection<Faculty> findAllFaculties() {
+    private NotFoundException facultyNotFound(Long id) {
+        logger.error("Faculty with id {} was not found", id);
+        return new NotFoundException("Факультет с id " + id + " не найден.");
+    }
+
+    public List<FacultyDto> findAllFaculties(boolean includeStudents) {
         logger.info("Was invoked method for finding all faculties");
-        return facultyRepository.findAll();
+        if (includeStudents) {
+            return facultyRepository.findAllWithStudents().stream().map(FacultyDto::withStudents).toList();
+        }
+        return facultyRepository.findAll().stream().map(FacultyDto::from).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public long exportFaculties(OutputStream out) throws IOException {
+        logger.info("Was invoked method for export faculties");
+        try (Stream<Faculty> faculties = facultyRepository.streamAll()) {
+            long count = ndjsonWriter.write(faculties.map(this::toDetachedDto), out);
+            logger.debug("Exported {} faculties", count);
+            return count;
+        }
     }
 
-    public Collection<Faculty> findFacultyByColor(String color) {
+    private FacultyDto toDetachedDto(Faculty faculty) {
+        entityManager.detach(faculty);
+        return FacultyDto.from(faculty);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FacultyDto> findFacultyByColor(String color, boolean includeStudents) {
         logger.info("Was invoked method for finding all faculties by color");
-        return facultyRepository.findFacultyByColor(color);
+        return toDtos(facultyRepository.findFacultyByColor(color), includeStudents);
     }
 
-    public Faculty updateFaculty(Faculty faculty) {
+    public FacultyDto updateFaculty(Faculty faculty) {
         logger.info("Was invoked method for updating faculty");
         if (!facultyRepository.existsById(faculty.getId())) {
             logger.error("Faculty with id {} not found.", faculty.getId());
@@ -63,12 +114,27 @@ public class FacultyService {
             logger.error("Faculty name cannot be empty.");
             throw new FacultyValidationException("Название факультета не может быть пустым");
         }
-        Optional<Faculty> existing = facultyRepository.findAll().stream().filter(f -> f.getName().equalsIgnoreCase(faculty.getName()) && f.getId() != faculty.getId()).findFirst();
-        if (existing.isPresent()) {
+        if (facultyRepository.existsByNameIgnoreCaseAndIdNot(faculty.getName(), faculty.getId())) {
             logger.error("Faculty with name {} already exists.", faculty.getName());
             throw new FacultyDuplicateException("Факультет с названием '" + faculty.getName() + "' уже существует");
         }
-        return facultyRepository.save(faculty);
+        Faculty saved = save(faculty);
+        facultyCache.invalidate(saved.getId());
+        facultyStatsCache.invalidateAll();
+        searchIndex.indexFaculty(saved.getId(), saved.getName(), saved.getColor());
+        return FacultyDto.from(saved);
+    }
+
+    private Faculty save(Faculty faculty) {
+        try {
+            return facultyRepository.save(faculty);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation && NAME_UNIQUE_INDEX.equalsIgnoreCase(violation.getConstraintName())) {
+                logger.error("Faculty with name {} was inserted concurrently.", faculty.getName());
+                throw new FacultyDuplicateException("Факультет с названием '" + faculty.getName() + "' уже существует");
+            }
+            throw e;
+        }
     }
 
     public void deleteFaculty(Long id) {
@@ -78,12 +144,20 @@ public class FacultyService {
             throw new FacultyNotFoundException("Факультет с id " + id + " не найден.");
         }
         facultyRepository.deleteById(id);
+        facultyCache.invalidate(id);
+        facultyStatsCache.invalidateAll();
+        searchIndex.removeFaculty(id);
     }
 
-    public Collection<Faculty> findFacultyByNameOrColor(String find) {
+    @Transactional(readOnly = true)
+    public List<FacultyDto> findFacultyByNameOrColor(String find, boolean includeStudents) {
         logger.info("Was invoked method for finding all faculties by name or color");
         logger.debug("Search parameter: '{}'", find);
-        return facultyRepository.findByNameContainingIgnoreCaseOrColorContainingIgnoreCase(find, find);
+        return toDtos(facultyRepository.findByNameContainingIgnoreCaseOrColorContainingIgnoreCase(find, find), includeStudents);
+    }
+
+    private List<FacultyDto> toDtos(Collection<Faculty> faculties, boolean includeStudents) {
+        return faculties.stream().map(includeStudents ? FacultyDto::withStudents : FacultyDto::from).toList();
     }
 
     public Collection<Student> findStudentsByFacultyById(Long id) {
@@ -97,10 +171,17 @@ public class FacultyService {
 
     public String theLongestName() {
         logger.info("Was invoked method the Longest name faculty");
-        return facultyRepository.findAll().stream()
-                .map(Faculty::getName)
-                .max(Comparator.comparingInt(String::length))
-                .get();
+        String longestName = getFacultyStats().getLongestName();
+        if (longestName == null) {
+            logger.error("There are no faculties to pick the longest name from");
+            throw new NotFoundException("Факультеты не найдены.");
+        }
+        return longestName;
+    }
+
+    public FacultyStatsReport getFacultyStats() {
+        logger.info("Was invoked method for faculty stats");
+        return facultyStatsCache.get(STATS_KEY, key -> FacultyStatsReport.of(facultyRepository.findFacultyStats()));
     }
 
     public int leftCalculation() {
@@ -0,0 +1,87 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.hogwarts.school.exception.BadRequestException;
+import ru.hogwarts.school.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public class ImageDecodeGate {
+    private static final Logger logger = LoggerFactory.getLogger(ImageDecodeGate.class);
+
+    private static final int PERMIT_BYTES = 1024;
+
+    private final Semaphore semaphore;
+    private final int totalPermits;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+
+    public ImageDecodeGate(@Value("${avatar.decode.max-memory:256MB}") DataSize maxMemory,
+                           @Value("${avatar.decode.max-wait:PT2S}") Duration maxWait,
+                           @Value("${avatar.decode.retry-after:PT5S}") Duration retryAfter,
+                           MeterRegistry meterRegistry) {
+        this.totalPermits = (int) Math.min(Integer.MAX_VALUE, maxMemory.toBytes() / PERMIT_BYTES);
+        this.semaphore = new Semaphore(totalPermits, true);
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+        Gauge.builder("avatar.decode.gate.used", this, ImageDecodeGate::usedBytes)
+                .baseUnit("bytes")
+                .description("Estimated memory reserved by in-flight image decodes")
+                .register(meterRegistry);
+        Gauge.builder("avatar.decode.gate.capacity", this, gate -> (double) gate.totalPermits * PERMIT_BYTES)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("avatar.decode.gate.waiting", semaphore, Semaphore::getQueueLength)
+                .description("Threads waiting for image decode memory")
+                .register(meterRegistry);
+    }
+
+    public Permit acquire(long bytes) {
+        int permits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, (bytes + PERMIT_BYTES - 1) / PERMIT_BYTES));
+        if (permits > totalPermits) {
+            logger.error("Image needs {} bytes to decode, gate capacity is {} bytes", bytes, (long) totalPermits * PERMIT_BYTES);
+            throw new BadRequestException("Разрешение изображения слишком велико");
+        }
+        try {
+            if (!semaphore.tryAcquire(permits, maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Image decode gate is full, rejecting decode of {} bytes", bytes);
+                throw new ServiceUnavailableException("Сервер перегружен обработкой изображений, попробуйте позже", retryAfter);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Обработка изображения прервана", retryAfter);
+        }
+        logger.debug("Reserved {} bytes for image decode", bytes);
+        return new Permit(permits);
+    }
+
+    private double usedBytes() {
+        return (double) (totalPermits - semaphore.availablePermits()) * PERMIT_BYTES;
+    }
+
+    public class Permit implements AutoCloseable {
+        private final int permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release(permits);
+            }
+        }
+    }
+}
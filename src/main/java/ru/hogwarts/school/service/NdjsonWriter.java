@@ -0,0 +1,34 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Component
+public class NdjsonWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    public NdjsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public long write(Stream<?> rows, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        long count = 0;
+        Iterator<?> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            buffered.write(objectMapper.writeValueAsBytes(iterator.next()));
+            buffered.write('\n');
+            count++;
+        }
+        buffered.flush();
+        return count;
+    }
+}
@@ -0,0 +1,240 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentName;
+import ru.hogwarts.school.exception.BadRequestException;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Component
+public class SearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    public static final String STUDENT = "student";
+    public static final String FACULTY = "faculty";
+
+    private static final double MIN_SCORE = 0.3;
+
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Postings postings = new Postings();
+    private Queue<Consumer<Postings>> pending;
+
+    public SearchIndex(StudentRepository studentRepository, FacultyRepository facultyRepository) {
+        this.studentRepository = studentRepository;
+        this.facultyRepository = facultyRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${search.index.resync-interval:PT10M}", fixedDelayString = "${search.index.resync-interval:PT10M}")
+    public void resync() {
+        rebuild();
+    }
+
+    // Writes made while the documents are queried are recorded in pending and replayed onto the rebuilt postings before the swap.
+    // put and remove replace a whole document, so replaying one the query already saw is harmless.
+    public synchronized void rebuild() {
+        logger.info("Was invoked method for rebuilding search index");
+        swapLock.writeLock().lock();
+        try {
+            pending = new ConcurrentLinkedQueue<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        Postings rebuilt = null;
+        try {
+            rebuilt = load();
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    Postings target = rebuilt;
+                    pending.forEach(update -> update.accept(target));
+                    postings = rebuilt;
+                }
+                pending = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Postings load() {
+        Postings rebuilt = new Postings();
+        for (StudentName student : studentRepository.findAllNames()) {
+            rebuilt.put(STUDENT, student.getId(), studentEntries(student.getId(), student.getName()));
+        }
+        for (FacultyDto faculty : facultyRepository.findAllSummaries()) {
+            rebuilt.put(FACULTY, faculty.getId(), facultyEntries(faculty.getId(), faculty.getName(), faculty.getColor()));
+        }
+        logger.debug("Search index rebuilt: {} documents, {} trigrams", rebuilt.byDocument.size(), rebuilt.byGram.size());
+        return rebuilt;
+    }
+
+    public void indexStudent(long id, String name) {
+        List<Entry> entries = studentEntries(id, name);
+        apply(current -> current.put(STUDENT, id, entries));
+    }
+
+    public void indexFaculty(long id, String name, String color) {
+        List<Entry> entries = facultyEntries(id, name, color);
+        apply(current -> current.put(FACULTY, id, entries));
+    }
+
+    public void removeStudent(long id) {
+        apply(current -> current.remove(STUDENT, id));
+    }
+
+    public void removeFaculty(long id) {
+        apply(current -> current.remove(FACULTY, id));
+    }
+
+    private void apply(Consumer<Postings> update) {
+        swapLock.readLock().lock();
+        try {
+            update.accept(postings);
+            if (pending != null) {
+                pending.add(update);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        logger.info("Was invoked method for search");
+        logger.debug("Search params: q='{}', limit={}", query, limit);
+        if (limit < 1) {
+            logger.error("Limit {} must be positive", limit);
+            throw new BadRequestException("Лимит должен быть больше нуля.");
+        }
+        Set<String> queryGrams = trigrams(query == null ? "" : query);
+        if (queryGrams.isEmpty()) {
+            logger.error("Search query '{}' has no letters or digits", query);
+            throw new BadRequestException("Поисковый запрос должен содержать буквы или цифры.");
+        }
+        Postings current = postings;
+        Map<Entry, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (Entry entry : current.byGram.getOrDefault(gram, Set.of())) {
+                shared.merge(entry, 1, Integer::sum);
+            }
+        }
+        Map<String, SearchHit> best = new HashMap<>();
+        shared.forEach((entry, count) -> {
+            double score = 2.0 * count / (queryGrams.size() + entry.grams.size());
+            if (score >= MIN_SCORE) {
+                best.merge(entry.type + ":" + entry.id, new SearchHit(entry.type, entry.id, entry.field, entry.text, score),
+                        (left, right) -> left.getScore() >= right.getScore() ? left : right);
+            }
+        });
+        return best.values().stream()
+                .sorted(Comparator.comparingDouble(SearchHit::getScore).reversed().thenComparing(SearchHit::getType).thenComparingLong(SearchHit::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    private static List<Entry> studentEntries(long id, String name) {
+        return entries(new Entry(STUDENT, id, "name", name));
+    }
+
+    private static List<Entry> facultyEntries(long id, String name, String color) {
+        return entries(new Entry(FACULTY, id, "name", name), new Entry(FACULTY, id, "color", color));
+    }
+
+    private static List<Entry> entries(Entry... entries) {
+        List<Entry> result = new ArrayList<>(entries.length);
+        for (Entry entry : entries) {
+            if (!entry.grams.isEmpty()) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private static final class Entry {
+        private final String type;
+        private final long id;
+        private final String field;
+        private final String text;
+        private final Set<String> grams;
+
+        private Entry(String type, long id, String field, String text) {
+            this.type = type;
+            this.id = id;
+            this.field = field;
+            this.text = text;
+            this.grams = text == null ? Set.of() : Set.copyOf(trigrams(text));
+        }
+    }
+
+    private static final class Postings {
+        private final Map<String, Set<Entry>> byGram = new ConcurrentHashMap<>();
+        private final Map<String, List<Entry>> byDocument = new ConcurrentHashMap<>();
+
+        private synchronized void put(String type, long id, List<Entry> entries) {
+            remove(type, id);
+            byDocument.put(type + ":" + id, entries);
+            for (Entry entry : entries) {
+                for (String gram : entry.grams) {
+                    byGram.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(entry);
+                }
+            }
+        }
+
+        private synchronized void remove(String type, long id) {
+            List<Entry> previous = byDocument.remove(type + ":" + id);
+            if (previous == null) {
+                return;
+            }
+            for (Entry entry : previous) {
+                for (String gram : entry.grams) {
+                    byGram.computeIfPresent(gram, (key, entries) -> {
+                        entries.remove(entry);
+                        return entries.isEmpty() ? null : entries;
+                    });
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.dto.StudentAge;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Component
+public class StudentAgeIndex {
+    private static final Logger logger = LoggerFactory.getLogger(StudentAgeIndex.class);
+
+    private static final long[] EMPTY = new long[0];
+
+    private final StudentRepository studentRepository;
+    private final boolean enabled;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentNavigableMap<Integer, long[]> idsByAge = new ConcurrentSkipListMap<>();
+    private Queue<Consumer<ConcurrentNavigableMap<Integer, long[]>>> pending;
+
+    public StudentAgeIndex(StudentRepository studentRepository, @Value("${student.age-index.enabled:true}") boolean enabled) {
+        this.studentRepository = studentRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${student.age-index.resync-interval:PT10M}", fixedDelayString = "${student.age-index.resync-interval:PT10M}")
+    public void resync() {
+        rebuild();
+    }
+
+    // Writes made while the ages are queried are recorded in pending and replayed onto the rebuilt index before the swap.
+    // Every write is idempotent, so replaying one the query already saw is harmless.
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        logger.info("Was invoked method for rebuilding student age index");
+        swapLock.writeLock().lock();
+        try {
+            pending = new ConcurrentLinkedQueue<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        ConcurrentNavigableMap<Integer, long[]> rebuilt = null;
+        try {
+            rebuilt = load();
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    ConcurrentNavigableMap<Integer, long[]> target = rebuilt;
+                    pending.forEach(update -> update.accept(target));
+                    idsByAge = rebuilt;
+                }
+                pending = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private ConcurrentNavigableMap<Integer, long[]> load() {
+        List<StudentAge> ages = studentRepository.findAllAges();
+        ConcurrentNavigableMap<Integer, long[]> rebuilt = new ConcurrentSkipListMap<>();
+        int from = 0;
+        while (from < ages.size()) {
+            int age = ages.get(from).getAge();
+            int to = from;
+            while (to < ages.size() && ages.get(to).getAge() == age) {
+                to++;
+            }
+            long[] ids = new long[to - from];
+            for (int i = from; i < to; i++) {
+                ids[i - from] = ages.get(i).getId();
+            }
+            rebuilt.put(age, ids);
+            from = to;
+        }
+        logger.debug("Student age index rebuilt: {} students in {} ages", ages.size(), rebuilt.size());
+        return rebuilt;
+    }
+
+    public void add(long id, int age) {
+        if (enabled) {
+            apply(index -> index.compute(age, (key, ids) -> insert(ids == null ? EMPTY : ids, id)));
+        }
+    }
+
+    public void remove(long id, int age) {
+        if (enabled) {
+            apply(index -> index.computeIfPresent(age, (key, ids) -> delete(ids, id)));
+        }
+    }
+
+    public void move(long id, int oldAge, int newAge) {
+        if (oldAge != newAge) {
+            remove(id, oldAge);
+            add(id, newAge);
+        }
+    }
+
+    private void apply(Consumer<ConcurrentNavigableMap<Integer, long[]>> update) {
+        swapLock.readLock().lock();
+        try {
+            update.accept(idsByAge);
+            if (pending != null) {
+                pending.add(update);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public long[] idsForAge(int age) {
+        return idsByAge.getOrDefault(age, EMPTY).clone();
+    }
+
+    public long[] idsForAgeRange(int min, int max) {
+        List<long[]> buckets = new ArrayList<>(idsByAge.subMap(min, true, max, true).values());
+        long[] result = new long[buckets.stream().mapToInt(ids -> ids.length).sum()];
+        int position = 0;
+        for (long[] ids : buckets) {
+            System.arraycopy(ids, 0, result, position, ids.length);
+            position += ids.length;
+        }
+        return result;
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        position = -position - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        result[position] = id;
+        System.arraycopy(ids, position, result, position + 1, ids.length - position);
+        return result;
+    }
+
+    private static long[] delete(long[] ids, long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+        return result;
+    }
+}
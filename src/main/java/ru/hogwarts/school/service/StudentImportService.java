@@ -0,0 +1,213 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.FacultyStatsReport;
+import ru.hogwarts.school.dto.StudentImportError;
+import ru.hogwarts.school.dto.StudentImportResult;
+import ru.hogwarts.school.exception.BadRequestException;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class StudentImportService {
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityCache<FacultyStatsReport> facultyStatsCache;
+    private final StudentStatistics studentStatistics;
+    private final StudentAgeIndex studentAgeIndex;
+    private final SearchIndex searchIndex;
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentImportService.class);
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${student.import.chunk-size:500}")
+    private int chunkSize;
+
+    public StudentImportService(StudentRepository studentRepository, FacultyRepository facultyRepository, ObjectMapper objectMapper, EntityCache<FacultyStatsReport> facultyStatsCache, StudentStatistics studentStatistics, StudentAgeIndex studentAgeIndex, SearchIndex searchIndex) {
+        this.studentRepository = studentRepository;
+        this.facultyRepository = facultyRepository;
+        this.objectMapper = objectMapper;
+        this.facultyStatsCache = facultyStatsCache;
+        this.studentStatistics = studentStatistics;
+        this.studentAgeIndex = studentAgeIndex;
+        this.searchIndex = searchIndex;
+    }
+
+    public StudentImportResult importStudents(InputStream body, MediaType contentType) throws IOException {
+        logger.info("Was invoked method for importing students");
+        boolean csv = TEXT_CSV.isCompatibleWith(contentType);
+        if (!csv && !MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            logger.error("Unsupported import content type {}", contentType);
+            throw new BadRequestException("Поддерживаются только форматы text/csv и application/x-ndjson");
+        }
+
+        List<StudentImportError> errors = new ArrayList<>();
+        Map<Long, Boolean> knownFaculties = new HashMap<>();
+        List<Student> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        long imported = 0;
+        long lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (csv && lineNumber == 1 && isCsvHeader(line))) {
+                    continue;
+                }
+                try {
+                    chunk.add(toStudent(csv ? parseCsv(line) : parseNdjson(line), knownFaculties));
+                    chunkLines.add(lineNumber);
+                } catch (IllegalArgumentException e) {
+                    errors.add(new StudentImportError(lineNumber, e.getMessage()));
+                }
+                if (chunk.size() == chunkSize) {
+                    imported += saveChunk(chunk, chunkLines, errors);
+                }
+            }
+        }
+        imported += saveChunk(chunk, chunkLines, errors);
+        facultyStatsCache.invalidateAll();
+        logger.debug("Imported {} students, {} rows failed", imported, errors.size());
+        return new StudentImportResult(imported, errors);
+    }
+
+    private int saveChunk(List<Student> chunk, List<Long> chunkLines, List<StudentImportError> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        int saved = 0;
+        try {
+            studentRepository.saveAll(chunk);
+            chunk.forEach(this::indexImported);
+            saved = chunk.size();
+        } catch (DataAccessException e) {
+            logger.warn("Unable to save import chunk of {} students, saving them one by one", chunk.size(), e);
+            for (int i = 0; i < chunk.size(); i++) {
+                Student student = chunk.get(i);
+                // The rolled back batch has already assigned an id; reset it so the row is inserted, not merged.
+                student.setId(0);
+                try {
+                    studentRepository.save(student);
+                    indexImported(student);
+                    saved++;
+                } catch (DataAccessException rowError) {
+                    logger.error("Unable to save imported student from line {}", chunkLines.get(i), rowError);
+                    errors.add(new StudentImportError(chunkLines.get(i), "Не удалось сохранить строку: " + rowError.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+        return saved;
+    }
+
+    private void indexImported(Student student) {
+        studentStatistics.added(student.getId(), student.getAge());
+        studentAgeIndex.add(student.getId(), student.getAge());
+        searchIndex.indexStudent(student.getId(), student.getName());
+    }
+
+    private Student toStudent(ImportRow row, Map<Long, Boolean> knownFaculties) {
+        if (row.name() == null || row.name().isBlank()) {
+            throw new IllegalArgumentException("Имя студента не может быть пустым");
+        }
+        if (row.age() <= 0) {
+            throw new IllegalArgumentException("Возраст должен быть больше нуля");
+        }
+        Student student = new Student(row.name().strip(), row.age());
+        if (row.facultyId() != null) {
+            if (!knownFaculties.computeIfAbsent(row.facultyId(), facultyRepository::existsById)) {
+                throw new IllegalArgumentException("Факультет с id " + row.facultyId() + " не найден");
+            }
+            student.setFaculty(facultyRepository.getReferenceById(row.facultyId()));
+        }
+        return student;
+    }
+
+    private ImportRow parseNdjson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Некорректный JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject() || !node.path("age").canConvertToInt()) {
+            throw new IllegalArgumentException("Ожидается объект с полями name и age");
+        }
+        JsonNode facultyId = node.path("facultyId");
+        return new ImportRow(node.path("name").asText(null), node.path("age").asInt(), facultyId.canConvertToLong() ? facultyId.asLong() : null);
+    }
+
+    private ImportRow parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < 2 || fields.size() > 3) {
+            throw new IllegalArgumentException("Ожидается строка вида name,age[,facultyId]");
+        }
+        try {
+            Long facultyId = fields.size() == 3 && !fields.get(2).isBlank() ? Long.valueOf(fields.get(2).strip()) : null;
+            return new ImportRow(fields.get(0), Integer.parseInt(fields.get(1).strip()), facultyId);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Возраст и id факультета должны быть числами");
+        }
+    }
+
+    private List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытая кавычка в строке");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private boolean isCsvHeader(String line) {
+        return line.strip().toLowerCase().startsWith("name,");
+    }
+
+    private record ImportRow(String name, int age, Long facultyId) {
+    }
+}
@@ -3,7 +3,16 @@ package ru.hogwarts.school.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.FacultyStatsReport;
+import ru.hogwarts.school.dto.FacultyStudentName;
+import ru.hogwarts.school.dto.FacultyStudents;
+import ru.hogwarts.school.dto.StudentName;
+import ru.hogwarts.school.dto.StudentStats;
 import ru.hogwarts.school.exception.FacultyNotFoundException;
 import ru.hogwarts.school.exception.BadRequestException;
 import ru.hogwarts.school.exception.StudentNotFoundException;
@@ -11,59 +20,117 @@ import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.StudentRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class StudentService {
 
     private final StudentRepository studentRepository;
+    private final NdjsonWriter ndjsonWriter;
+    private final EntityManager entityManager;
+    private final EntityCache<Student> studentCache;
+    private final EntityCache<FacultyStatsReport> facultyStatsCache;
+    private final StudentStatistics studentStatistics;
+    private final StudentAgeIndex studentAgeIndex;
+    private final SearchIndex searchIndex;
 
     private static final Logger logger = LoggerFactory.getLogger(StudentService.class);
 
-    public StudentService(StudentRepository studentRepository) {
+    private static final int ID_BATCH_SIZE = 1000;
+
+    public StudentService(StudentRepository studentRepository, NdjsonWriter ndjsonWriter, EntityManager entityManager, EntityCache<Student> studentCache, EntityCache<FacultyStatsReport> facultyStatsCache, StudentStatistics studentStatistics, StudentAgeIndex studentAgeIndex, SearchIndex searchIndex) {
         this.studentRepository = studentRepository;
+        this.ndjsonWriter = ndjsonWriter;
+        this.entityManager = entityManager;
+        this.studentCache = studentCache;
+        this.facultyStatsCache = facultyStatsCache;
+        this.studentStatistics = studentStatistics;
+        this.studentAgeIndex = studentAgeIndex;
+        this.searchIndex = searchIndex;
     }
 
     public Student createStudent(Student student) {
         logger.info("Was invoked method for create student");
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        studentStatistics.added(saved.getId(), saved.getAge());
+        studentAgeIndex.add(saved.getId(), saved.getAge());
+        searchIndex.indexStudent(saved.getId(), saved.getName());
+        facultyStatsCache.invalidateAll();
+        return saved;
     }
 
     public Student findStudentById(Long id) {
         logger.info("Was invoked method for find student by id");
-        return studentRepository.findById(id).orElseThrow(() -> {
-            logger.error("There is no student with id = " + id);
-            return new StudentNotFoundException("Студент с id " + id + " не найден.");
-        });
+        return studentCache.get(id, key -> studentRepository.findById(key).orElseThrow(() -> {
+            logger.error("There is no student with id = " + key);
+            return new StudentNotFoundException("Студент с id " + key + " не найден.");
+        }));
     }
 
     public Collection<Student> findStudentsByAge(int age) {
         logger.info("Was invoked method for find student by age");
+        if (studentAgeIndex.isEnabled()) {
+            return findIndexedStudents(studentAgeIndex.idsForAge(age), age, age);
+        }
         return studentRepository.findStudentsByAge(age);
     }
 
-    public Collection<Student> findAllStudents() {
-        logger.info("Was invoked method for find all students");
-        return studentRepository.findAll();
+    public List<Student> findStudentsAfter(Long afterId, int limit) {
+        logger.info("Was invoked method for find students after cursor");
+        logger.debug("Keyset params: after={}, limit={}", afterId, limit);
+        if (limit < 1) {
+            logger.error("Limit {} must be positive", limit);
+            throw new BadRequestException("Лимит должен быть больше нуля.");
+        }
+        return studentRepository.findAfter(afterId == null ? 0L : afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public long exportStudents(OutputStream out) throws IOException {
+        logger.info("Was invoked method for export students");
+        try (Stream<Student> students = studentRepository.streamAll()) {
+            long count = ndjsonWriter.write(students.map(this::detach), out);
+            logger.debug("Exported {} students", count);
+            return count;
+        }
+    }
+
+    private Student detach(Student student) {
+        entityManager.detach(student);
+        return student;
     }
 
     public Student updateStudent(Student student) {
         logger.info("Was invoked method for update student");
-        if (!studentRepository.existsById(student.getId())) {
+        Student existing = studentRepository.findById(student.getId()).orElseThrow(() -> {
             logger.error("A student with id " + student.getId() + " does not exist.");
-            throw new StudentNotFoundException("Студент с id: " + student.getId() + " не существует, обновление невозможно.");
-        }
-        return studentRepository.save(student);
+            return new StudentNotFoundException("Студент с id: " + student.getId() + " не существует, обновление невозможно.");
+        });
+        int previousAge = existing.getAge();
+        Student saved = studentRepository.save(student);
+        studentStatistics.changed(saved.getId(), previousAge, saved.getAge());
+        studentAgeIndex.move(saved.getId(), previousAge, saved.getAge());
+        searchIndex.indexStudent(saved.getId(), saved.getName());
+        studentCache.invalidate(saved.getId());
+        facultyStatsCache.invalidateAll();
+        return saved;
     }
 
     public void deleteStudent(Long id) {
         logger.info("Was invoked method for delete student");
-        if (!studentRepository.existsById(id)) {
+        Student existing = studentRepository.findById(id).orElseThrow(() -> {
             logger.error("A student with id " + id + " does not exist.");
-            throw new StudentNotFoundException("Студент с id " + id + " не найден.");
-        }
-        studentRepository.deleteById(id);
+            return new StudentNotFoundException("Студент с id " + id + " не найден.");
+        });
+        studentRepository.delete(existing);
+        studentStatistics.removed(existing.getId(), existing.getAge());
+        studentAgeIndex.remove(existing.getId(), existing.getAge());
+        searchIndex.removeStudent(existing.getId());
+        studentCache.invalidate(id);
+        facultyStatsCache.invalidateAll();
     }
 
     public Collection<Student> findStudentsByAgeBetween(int min, int max) {
@@ -73,10 +140,24 @@ public class StudentService {
             logger.error("The minimum age cannot be greater than the maximum age.");
             throw new BadRequestException("Минимальный возраст не может быть больше максимального возраста.");
         }
+        if (studentAgeIndex.isEnabled()) {
+            return findIndexedStudents(studentAgeIndex.idsForAgeRange(min, max), min, max);
+        }
         return studentRepository.findByAgeBetween(min, max);
     }
 
-    public Faculty findFacultyByIdStudent(Long id) {
+    private List<Student> findIndexedStudents(long[] ids, int min, int max) {
+        logger.debug("Age index resolved {} student ids for ages {}..{}", ids.length, min, max);
+        List<Student> students = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += ID_BATCH_SIZE) {
+            List<Long> batch = Arrays.stream(ids, from, Math.min(from + ID_BATCH_SIZE, ids.length)).boxed().toList();
+            studentRepository.findAllById(batch).stream().filter(student -> student.getAge() >= min && student.getAge() <= max).forEach(students::add);
+        }
+        students.sort(Comparator.comparingInt(Student::getAge).thenComparing(Student::getId));
+        return students;
+    }
+
+    public FacultyDto findFacultyByIdStudent(Long id) {
         logger.info("Was invoked method for find faculty by id student");
         if (!studentRepository.existsById(id)) {
             logger.error("A student with id " + id + " does not exist.");
@@ -87,22 +168,25 @@ public class StudentService {
             logger.error("The student with id " + id + " does not have a faculty.");
             throw new FacultyNotFoundException("У студента с id: " + id + " нет факультета.");
         }
-        return faculty;
+        return FacultyDto.from(faculty);
     }
 
     public int countStudents() {
         logger.info("Was invoked method for count students");
-        return studentRepository.countStudents();
+        return Math.toIntExact(studentStatistics.count());
     }
 
     public double averageAgeStudents() {
         logger.info("Was invoked method for average age students");
-        Double avg = studentRepository.averageAgeStudents();
-        if (avg == null) {
+        if (studentStatistics.count() == 0) {
             logger.warn("Average age requested, but student list is empty in database");
-            return 0.0;
         }
-        return avg;
+        return studentStatistics.averageAge();
+    }
+
+    public StudentStats getStudentStats() {
+        logger.info("Was invoked method for student stats");
+        return studentStatistics.snapshot();
     }
 
     public Collection<Student> theLast5Students() {
@@ -110,31 +194,58 @@ public class StudentService {
         return studentRepository.theLast5Students();
     }
 
-    public Map<Faculty, Set<String>> groupingByFaculty() {
+    public List<FacultyStudents> groupingByFaculty(int minNameLength) {
         logger.info("Was invoked method for grouping by faculty");
-        List<Student> allStudents = studentRepository.findAll();
-        Map<Faculty, Set<String>> studentsByFaculties = allStudents.stream()
-                .parallel()
-                .filter(s -> s.getName().length() > 5)
-                .collect(Collectors.groupingBy(Student::getFaculty, Collectors.mapping(Student::getName, Collectors.toSet())));
-        return studentsByFaculties;
+        logger.debug("Grouping params: minNameLength={}", minNameLength);
+        List<FacultyStudents> groups = new ArrayList<>();
+        FacultyStudentName current = null;
+        List<String> names = new ArrayList<>();
+        for (FacultyStudentName row : studentRepository.findFacultyStudentNames(minNameLength)) {
+            if (current != null && current.getFacultyId() != row.getFacultyId()) {
+                groups.add(new FacultyStudents(current.getFacultyId(), current.getFacultyName(), names));
+                names.clear();
+            }
+            current = row;
+            names.add(row.getStudentName());
+        }
+        if (current != null) {
+            groups.add(new FacultyStudents(current.getFacultyId(), current.getFacultyName(), names));
+        }
+        return groups;
     }
 
     public Collection<String> studentsNamesStartingA() {
         logger.info("Was invoked method for studentsNamesStartingA");
-        return studentRepository.findAll().stream()
+        return studentRepository.findNamesByPrefix("a%", "", 0L, Limit.unlimited()).stream()
                 .map(s -> s.getName().toUpperCase())
-                .filter(name -> name.startsWith("A"))
-                .sorted()
                 .toList();
     }
 
+    public List<StudentName> findStudentNamesByPrefix(String prefix, Long afterId, int limit) {
+        logger.info("Was invoked method for find student names by prefix");
+        logger.debug("Prefix params: prefix={}, after={}, limit={}", prefix, afterId, limit);
+        if (prefix == null || prefix.isBlank()) {
+            logger.error("Name prefix is blank");
+            throw new BadRequestException("Префикс имени не может быть пустым.");
+        }
+        if (limit < 1) {
+            logger.error("Limit {} must be positive", limit);
+            throw new BadRequestException("Лимит должен быть больше нуля.");
+        }
+        String afterName = "";
+        if (afterId != null) {
+            afterName = studentRepository.findLowerNameById(afterId).orElseThrow(() -> {
+                logger.error("Cursor student with id = {} does not exist", afterId);
+                return new BadRequestException("Некорректный курсор: студент с id " + afterId + " не найден.");
+            });
+        }
+        String pattern = prefix.toLowerCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return studentRepository.findNamesByPrefix(pattern, afterName, afterId == null ? 0L : afterId, Limit.of(limit));
+    }
+
     public double studentsAgeMiddle() {
         logger.info("Was invoked method for studentsAgeMiddle");
-        return studentRepository.findAll().stream()
-                .mapToInt(Student::getAge)
-                .average()
-                .orElse(0.0);
+        return studentStatistics.averageAge();
     }
 
     public synchronized void printStudentsNameSynchronized(Student student) {
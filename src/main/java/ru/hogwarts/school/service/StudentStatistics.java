@@ -0,0 +1,184 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.AgeCount;
+import ru.hogwarts.school.dto.StudentAge;
+import ru.hogwarts.school.dto.StudentStats;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class StudentStatistics {
+    private static final Logger logger = LoggerFactory.getLogger(StudentStatistics.class);
+
+    private static final int MAX_AGE = 150;
+
+    private static final int REMOVED = -1;
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate snapshotTransaction;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Counters counters = new Counters();
+    private Map<Long, Integer> pending;
+
+    public StudentStatistics(StudentRepository studentRepository, PlatformTransactionManager transactionManager) {
+        this.studentRepository = studentRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${student.stats.resync-interval:PT10M}", fixedDelayString = "${student.stats.resync-interval:PT10M}")
+    public void resync() {
+        rebuild();
+    }
+
+    // pending keeps the age each student was last written with while the counts are queried. A write may or may not be in the
+    // query's snapshot, so the snapshot's own state of those students is read back in the same transaction and replaced by pending.
+    public synchronized void rebuild() {
+        logger.info("Was invoked method for rebuilding student statistics");
+        swapLock.writeLock().lock();
+        try {
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                Counters loaded = new Counters();
+                for (AgeCount ageCount : studentRepository.countByAge()) {
+                    loaded.add(ageCount.getAge(), ageCount.getCount());
+                }
+                Set<Long> corrected = new HashSet<>();
+                subtractSnapshotState(loaded, corrected);
+                swap(loaded, corrected);
+            });
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+        logger.debug("Student statistics rebuilt: {} students", counters.count.sum());
+    }
+
+    private void swap(Counters rebuilt, Set<Long> corrected) {
+        swapLock.writeLock().lock();
+        try {
+            subtractSnapshotState(rebuilt, corrected);
+            pending.values().stream().filter(age -> age != REMOVED).forEach(age -> rebuilt.add(age, 1));
+            counters = rebuilt;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void subtractSnapshotState(Counters loaded, Set<Long> corrected) {
+        List<Long> ids = pending.keySet().stream().filter(id -> !corrected.contains(id)).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (StudentAge student : studentRepository.findAgesByIdIn(ids)) {
+            loaded.add(student.getAge(), -1);
+        }
+        corrected.addAll(ids);
+    }
+
+    public void added(long id, int age) {
+        apply(id, age, () -> counters.add(age, 1));
+    }
+
+    public void removed(long id, int age) {
+        apply(id, REMOVED, () -> counters.add(age, -1));
+    }
+
+    public void changed(long id, int oldAge, int newAge) {
+        if (oldAge != newAge) {
+            apply(id, newAge, () -> {
+                counters.add(oldAge, -1);
+                counters.add(newAge, 1);
+            });
+        }
+    }
+
+    private void apply(long id, int age, Runnable update) {
+        swapLock.readLock().lock();
+        try {
+            update.run();
+            if (pending != null) {
+                pending.put(id, age);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public long count() {
+        return counters.count.sum();
+    }
+
+    public double averageAge() {
+        Counters current = counters;
+        long count = current.count.sum();
+        return count > 0 ? (double) current.ageSum.sum() / count : 0.0;
+    }
+
+    public StudentStats snapshot() {
+        Counters current = counters;
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        Integer minAge = null;
+        Integer maxAge = null;
+        for (int age = 0; age <= MAX_AGE; age++) {
+            long students = current.histogram[age].sum();
+            if (students > 0) {
+                histogram.put(age, students);
+                minAge = minAge == null ? age : minAge;
+                maxAge = age;
+            }
+        }
+        long count = current.count.sum();
+        double average = count > 0 ? (double) current.ageSum.sum() / count : 0.0;
+        return new StudentStats(count, average, minAge, maxAge, histogram);
+    }
+
+    private static final class Counters {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder ageSum = new LongAdder();
+        private final LongAdder[] histogram = new LongAdder[MAX_AGE + 1];
+
+        private Counters() {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        private void add(int age, long delta) {
+            count.add(delta);
+            ageSum.add(delta * age);
+            histogram[Math.max(0, Math.min(age, MAX_AGE))].add(delta);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ru.hogwarts.school.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.repository.AvatarRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Component
+public class AvatarFileStore implements AvatarStorage {
+    private static final Logger logger = LoggerFactory.getLogger(AvatarFileStore.class);
+
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern LEGACY_NAME = Pattern.compile("\\d+_.+");
+
+    private final AvatarRepository avatarRepository;
+
+    @Value("${path.to.avatars.folder}")
+    private String avatarsDir;
+
+    @Value("${avatar.store.gc-grace:PT1H}")
+    private Duration gcGrace;
+
+    public AvatarFileStore(AvatarRepository avatarRepository) {
+        this.avatarRepository = avatarRepository;
+    }
+
+    @Override
+    public boolean supports(String key) {
+        return key != null && !key.startsWith(AvatarPackStore.KEY_PREFIX);
+    }
+
+    @Override
+    public String store(InputStreamSource file) throws IOException {
+        logger.info("Was invoked method for storing avatar file");
+        String hash = ContentHash.hex(ContentHash.sha256(file));
+        Path blob = Path.of(avatarsDir, hash.substring(0, 2), hash);
+        if (Files.exists(blob)) {
+            logger.debug("Avatar blob {} already exists, skipping write", hash);
+            Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+            return blob.toString();
+        }
+
+        Files.createDirectories(blob.getParent());
+        Path tmp = Files.createTempFile(blob.getParent(), hash, ".tmp");
+        try (InputStream is = file.getInputStream()) {
+            Files.copy(is, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return blob.toString();
+    }
+
+    @Override
+    public Resource load(String key) {
+        return new FileSystemResource(Path.of(key));
+    }
+
+    @Override
+    public void release(String filePath) {
+        logger.info("Was invoked method for releasing avatar file");
+        if (filePath != null) {
+            deleteIfUnreferenced(Path.of(filePath));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${avatar.store.gc-interval:PT1H}", fixedDelayString = "${avatar.store.gc-interval:PT1H}")
+    public void sweep() {
+        logger.info("Was invoked method for sweeping unreferenced avatar files");
+        Path root = Path.of(avatarsDir);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> candidates;
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            candidates = files.filter(Files::isRegularFile).filter(this::isManagedFile).toList();
+        } catch (IOException e) {
+            logger.error("Unable to scan avatars folder {}", root, e);
+            return;
+        }
+        long removed = candidates.stream().filter(this::deleteIfUnreferenced).count();
+        logger.info("Avatar sweep removed {} of {} files", removed, candidates.size());
+    }
+
+    private boolean isManagedFile(Path file) {
+        String name = file.getFileName().toString();
+        Path parent = file.getParent();
+        boolean isBlob = BLOB_NAME.matcher(name).matches() && parent.getFileName().toString().equals(name.substring(0, 2));
+        boolean isLegacy = LEGACY_NAME.matcher(name).matches() && parent.equals(Path.of(avatarsDir));
+        return isBlob || isLegacy;
+    }
+
+    private boolean deleteIfUnreferenced(Path file) {
+        try {
+            if (!Files.exists(file) || avatarRepository.countByFilePath(file.toString()) > 0) {
+                return false;
+            }
+            Instant lastModified = Files.getLastModifiedTime(file).toInstant();
+            if (lastModified.isAfter(Instant.now().minus(gcGrace))) {
+                logger.debug("Avatar file {} is unreferenced but too recent to delete", file);
+                return false;
+            }
+            Files.deleteIfExists(file);
+            logger.debug("Deleted unreferenced avatar file {}", file);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Unable to delete avatar file {}", file, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package ru.hogwarts.school.storage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DescriptiveResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.hogwarts.school.repository.AvatarRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class AvatarPackStore implements AvatarStorage {
+    static final String KEY_PREFIX = "pack:";
+
+    private static final Logger logger = LoggerFactory.getLogger(AvatarPackStore.class);
+
+    private static final Pattern PACK_NAME = Pattern.compile("pack-(\\d{6})\\.dat");
+
+    private final AvatarRepository avatarRepository;
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastTouched = new ConcurrentHashMap<>();
+    private final NavigableMap<Integer, PackFile> packs = new ConcurrentSkipListMap<>();
+    private PackFile activePack;
+
+    @Value("${avatar.storage.pack.dir:${path.to.avatars.folder}/packs}")
+    private String packDir;
+
+    @Value("${avatar.storage.pack.max-size:256MB}")
+    private DataSize maxPackSize;
+
+    @Value("${avatar.storage.pack.compaction-threshold:0.5}")
+    private double compactionThreshold;
+
+    @Value("${avatar.store.gc-grace:PT1H}")
+    private Duration gcGrace;
+
+    public AvatarPackStore(AvatarRepository avatarRepository) {
+        this.avatarRepository = avatarRepository;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (maxPackSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("avatar.storage.pack.max-size must not exceed 2GB");
+        }
+        Path dir = Path.of(packDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(file -> PACK_NAME.matcher(file.getFileName().toString()).matches()).sorted().toList();
+        }
+        for (Path file : files) {
+            Matcher matcher = PACK_NAME.matcher(file.getFileName().toString());
+            matcher.matches();
+            PackFile pack = new PackFile(Integer.parseInt(matcher.group(1)), file);
+            pack.scan(record -> index.put(ContentHash.hex(record.hash()), new Location(pack.getId(), record.offset(), record.length())));
+            packs.put(pack.getId(), pack);
+        }
+        if (!packs.isEmpty()) {
+            activePack = packs.lastEntry().getValue();
+        }
+        logger.info("Opened {} avatar packs with {} blobs", packs.size(), index.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (PackFile pack : packs.values()) {
+            try {
+                pack.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close avatar pack {}", pack.getPath(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean supports(String key) {
+        return key != null && key.startsWith(KEY_PREFIX);
+    }
+
+    @Override
+    public String store(InputStreamSource source) throws IOException {
+        logger.info("Was invoked method for storing avatar in pack");
+        byte[] hash = ContentHash.sha256(source);
+        String hex = ContentHash.hex(hash);
+        // Touching and the dedupe check share the monitor with compaction, so a blob cannot be dropped between them.
+        synchronized (this) {
+            lastTouched.put(hex, Instant.now());
+            if (index.containsKey(hex)) {
+                logger.debug("Avatar blob {} already packed, skipping write", hex);
+                return KEY_PREFIX + hex;
+            }
+        }
+
+        byte[] content;
+        try (InputStream is = source.getInputStream()) {
+            content = is.readAllBytes();
+        }
+        synchronized (this) {
+            if (!index.containsKey(hex)) {
+                append(hex, hash, content);
+            }
+        }
+        return KEY_PREFIX + hex;
+    }
+
+    // Compaction moves records before closing their pack, so a read that hits a closed pack finds the new location on retry.
+    @Override
+    public Resource load(String key) throws IOException {
+        String hex = key.substring(KEY_PREFIX.length());
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Location location = index.get(hex);
+            if (location == null) {
+                break;
+            }
+            PackFile pack = packs.get(location.packId());
+            if (pack == null) {
+                continue;
+            }
+            try {
+                return new MappedBlobResource(pack.read(location.offset(), location.length()), key);
+            } catch (ClosedChannelException e) {
+                logger.debug("Avatar pack {} was closed by compaction while reading {}, retrying", pack.getPath().getFileName(), key);
+            }
+        }
+        return new DescriptiveResource("Missing avatar blob " + key);
+    }
+
+    @Override
+    public void release(String key) {
+        logger.debug("Avatar blob {} released, space is reclaimed by compaction", key);
+    }
+
+    @Scheduled(initialDelayString = "${avatar.storage.pack.compaction-interval:PT6H}", fixedDelayString = "${avatar.storage.pack.compaction-interval:PT6H}")
+    public void compact() {
+        logger.info("Was invoked method for compacting avatar packs");
+        for (PackFile pack : packs.values()) {
+            if (pack == activePack) {
+                continue;
+            }
+            try {
+                compact(pack);
+            } catch (IOException e) {
+                logger.error("Unable to compact avatar pack {}", pack.getPath(), e);
+            }
+        }
+    }
+
+    // References are looked up in the database before taking the monitor; only the grace timestamp is re-checked under it.
+    private void compact(PackFile pack) throws IOException {
+        List<Map.Entry<String, Location>> records = index.entrySet().stream().filter(entry -> entry.getValue().packId() == pack.getId()).toList();
+        Set<String> referenced = records.stream().map(Map.Entry::getKey).filter(this::isReferenced).collect(Collectors.toSet());
+        long liveBytes = records.stream()
+                .filter(entry -> referenced.contains(entry.getKey()) || isRecentlyTouched(entry.getKey()))
+                .mapToLong(entry -> PackFile.HEADER_SIZE + entry.getValue().length())
+                .sum();
+        if (pack.size() > 0 && (double) liveBytes / pack.size() >= compactionThreshold) {
+            return;
+        }
+
+        int kept = 0;
+        for (Map.Entry<String, Location> entry : records) {
+            String hex = entry.getKey();
+            byte[] content = referenced.contains(hex) || isRecentlyTouched(hex) ? copy(pack, entry.getValue()) : null;
+            synchronized (this) {
+                if (referenced.contains(hex) || isRecentlyTouched(hex)) {
+                    if (content == null) {
+                        content = copy(pack, entry.getValue());
+                    }
+                    index.replace(hex, entry.getValue(), append(null, ContentHash.unhex(hex), content));
+                    kept++;
+                } else {
+                    index.remove(hex, entry.getValue());
+                    lastTouched.remove(hex);
+                }
+            }
+        }
+        packs.remove(pack.getId());
+        pack.close();
+        Files.deleteIfExists(pack.getPath());
+        logger.info("Compacted avatar pack {}: kept {} of {} blobs", pack.getPath().getFileName(), kept, records.size());
+    }
+
+    private static byte[] copy(PackFile pack, Location location) throws IOException {
+        ByteBuffer source = pack.read(location.offset(), location.length());
+        byte[] content = new byte[source.remaining()];
+        source.get(content);
+        return content;
+    }
+
+    private boolean isRecentlyTouched(String hex) {
+        Instant touched = lastTouched.get(hex);
+        return touched != null && touched.isAfter(Instant.now().minus(gcGrace));
+    }
+
+    private boolean isReferenced(String hex) {
+        return avatarRepository.countByFilePath(KEY_PREFIX + hex) > 0;
+    }
+
+    private Location append(String hex, byte[] hash, byte[] content) throws IOException {
+        if (activePack == null || activePack.size() + PackFile.HEADER_SIZE + content.length > maxPackSize.toBytes()) {
+            int id = packs.isEmpty() ? 1 : packs.lastKey() + 1;
+            Path dir = Files.createDirectories(Path.of(packDir));
+            activePack = new PackFile(id, dir.resolve(String.format("pack-%06d.dat", id)));
+            packs.put(id, activePack);
+            logger.info("Started new avatar pack {}", activePack.getPath().getFileName());
+        }
+        long offset = activePack.append(hash, content);
+        Location location = new Location(activePack.getId(), offset, content.length);
+        if (hex != null) {
+            index.put(hex, location);
+        }
+        return location;
+    }
+
+    private record Location(int packId, long offset, int length) {
+    }
+}
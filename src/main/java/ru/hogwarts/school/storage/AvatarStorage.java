@@ -0,0 +1,17 @@
+package ru.hogwarts.school.storage;
+
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+
+public interface AvatarStorage {
+
+    boolean supports(String key);
+
+    String store(InputStreamSource source) throws IOException;
+
+    Resource load(String key) throws IOException;
+
+    void release(String key);
+}
@@ -0,0 +1,72 @@
+package ru.hogwarts.school.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+
+@Primary
+@Component
+public class DelegatingAvatarStorage implements AvatarStorage {
+    private final AvatarFileStore avatarFileStore;
+    private final AvatarPackStore avatarPackStore;
+    private final AvatarStorage writeStorage;
+
+    private static final Logger logger = LoggerFactory.getLogger(DelegatingAvatarStorage.class);
+
+    public DelegatingAvatarStorage(AvatarFileStore avatarFileStore, AvatarPackStore avatarPackStore, @Value("${avatar.storage.type:file}") String storageType) {
+        this.avatarFileStore = avatarFileStore;
+        this.avatarPackStore = avatarPackStore;
+        this.writeStorage = switch (storageType) {
+            case "file" -> avatarFileStore;
+            case "pack" -> avatarPackStore;
+            default -> throw new IllegalStateException("Unknown avatar.storage.type: " + storageType);
+        };
+        logger.info("Avatar uploads are written to {} storage", storageType);
+    }
+
+    @Override
+    public boolean supports(String key) {
+        return avatarPackStore.supports(key) || avatarFileStore.supports(key);
+    }
+
+    @Override
+    public String store(InputStreamSource source) throws IOException {
+        return writeStorage.store(source);
+    }
+
+    @Override
+    public Resource load(String key) throws IOException {
+        return storageFor(key).load(key);
+    }
+
+    @Override
+    public void release(String key) {
+        if (key == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            storageFor(key).release(key);
+            return;
+        }
+        // A rolled back transaction still points the avatar row at this blob, so it may only go once the commit is done.
+        logger.debug("Deferring release of {} until the transaction commits", key);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                storageFor(key).release(key);
+            }
+        });
+    }
+
+    private AvatarStorage storageFor(String key) {
+        return avatarPackStore.supports(key) ? avatarPackStore : avatarFileStore;
+    }
+}
@@ -0,0 +1,119 @@
+package ru.hogwarts.school.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+class PackFile implements Closeable {
+    static final int RECORD_MAGIC = 0x41565052;
+    static final int HEADER_SIZE = Integer.BYTES + ContentHash.LENGTH + Integer.BYTES;
+    static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private final int id;
+    private final Path path;
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final Map<Integer, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private long size;
+
+    PackFile(int id, Path path) throws IOException {
+        this(id, path, DEFAULT_SEGMENT_SIZE);
+    }
+
+    PackFile(int id, Path path, int segmentSize) throws IOException {
+        this.id = id;
+        this.path = path;
+        this.segmentSize = segmentSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.size = channel.size();
+    }
+
+    int getId() {
+        return id;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized long append(byte[] hash, byte[] content) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(RECORD_MAGIC).put(hash).putInt(content.length).flip();
+        ByteBuffer[] record = {header, ByteBuffer.wrap(content)};
+        long offset = size;
+        channel.position(offset);
+        while (record[1].hasRemaining()) {
+            channel.write(record);
+        }
+        channel.force(false);
+        size += HEADER_SIZE + content.length;
+        return offset + HEADER_SIZE;
+    }
+
+    // A record belongs to the segment it starts in; only the tail segment is ever remapped as appends grow it.
+    ByteBuffer read(long offset, int length) throws IOException {
+        int index = (int) (offset / segmentSize);
+        long segmentStart = (long) index * segmentSize;
+        MappedByteBuffer segment = segments.get(index);
+        if (segment == null || offset + length > segmentStart + segment.capacity()) {
+            segment = mapSegment(index, offset + length);
+        }
+        return segment.slice((int) (offset - segmentStart), length);
+    }
+
+    synchronized void scan(Consumer<Record> consumer) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long position = 0;
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            byte[] hash = new byte[ContentHash.LENGTH];
+            int magic = header.getInt();
+            header.get(hash);
+            int length = header.getInt();
+            if (magic != RECORD_MAGIC || length < 0 || position + HEADER_SIZE + length > size) {
+                break;
+            }
+            consumer.accept(new Record(hash, position + HEADER_SIZE, length));
+            position += HEADER_SIZE + length;
+        }
+        if (position < size) {
+            channel.truncate(position);
+            size = position;
+        }
+    }
+
+    private synchronized MappedByteBuffer mapSegment(int index, long end) throws IOException {
+        long segmentStart = (long) index * segmentSize;
+        MappedByteBuffer segment = segments.get(index);
+        if (segment != null && end <= segmentStart + segment.capacity()) {
+            return segment;
+        }
+        if (end > size) {
+            throw new IOException("Record ending at " + end + " is beyond the end of pack " + path);
+        }
+        long segmentEnd = Math.max(end, Math.min(size, segmentStart + segmentSize));
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentEnd - segmentStart);
+        segments.put(index, segment);
+        return segment;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    record Record(byte[] hash, long offset, int length) {
+    }
+}
@@ -0,0 +1,11 @@
+-- liquibase formatted sql
+-- changeset dkochetov:5
+CREATE TABLE avatar_rendition (
+    id BIGSERIAL PRIMARY KEY,
+    avatar_id BIGINT NOT NULL REFERENCES avatar (id) ON DELETE CASCADE,
+    width INTEGER NOT NULL,
+    file_path VARCHAR(255),
+    media_type VARCHAR(255),
+    data BYTEA,
+    CONSTRAINT uk_avatar_rendition_avatar_width UNIQUE (avatar_id, width)
+);
@@ -0,0 +1,6 @@
+-- liquibase formatted sql
+-- changeset dkochetov:7
+CREATE SEQUENCE avatar_seq INCREMENT BY 50;
+SELECT setval('avatar_seq', COALESCE(MAX(id), 0) + 50, false) FROM avatar;
+ALTER TABLE avatar ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE avatar ALTER COLUMN id DROP DEFAULT;
@@ -0,0 +1,3 @@
+-- liquibase formatted sql
+-- changeset dkochetov:4
+ALTER TABLE avatar ADD COLUMN status VARCHAR(16) NOT NULL DEFAULT 'READY';
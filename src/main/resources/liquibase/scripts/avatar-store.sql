@@ -0,0 +1,3 @@
+-- liquibase formatted sql
+-- changeset dkochetov:3
+CREATE INDEX idx_avatar_file_path ON avatar (file_path);
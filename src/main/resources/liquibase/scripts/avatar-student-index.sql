@@ -0,0 +1,3 @@
+-- liquibase formatted sql
+-- changeset dkochetov:6
+CREATE INDEX idx_avatar_student_id ON avatar (student_id);
@@ -0,0 +1,5 @@
+-- liquibase formatted sql
+-- changeset dkochetov:11
+-- preconditions onFail:HALT onFailMessage:faculty contains names that differ only by case, resolve them before applying the unique index
+-- precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM (SELECT lower(name) FROM faculty GROUP BY lower(name) HAVING COUNT(*) > 1) duplicates
+CREATE UNIQUE INDEX idx_faculty_name_lower_unique ON faculty (lower(name));
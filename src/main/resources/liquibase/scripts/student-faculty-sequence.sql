@@ -0,0 +1,10 @@
+-- liquibase formatted sql
+-- changeset dkochetov:8
+CREATE SEQUENCE IF NOT EXISTS student_seq INCREMENT BY 50;
+ALTER SEQUENCE student_seq INCREMENT BY 50;
+SELECT setval('student_seq', GREATEST(COALESCE(MAX(id), 0) + 50, (SELECT last_value FROM student_seq)), false) FROM student;
+
+-- changeset dkochetov:9
+CREATE SEQUENCE IF NOT EXISTS faculty_seq INCREMENT BY 50;
+ALTER SEQUENCE faculty_seq INCREMENT BY 50;
+SELECT setval('faculty_seq', GREATEST(COALESCE(MAX(id), 0) + 50, (SELECT last_value FROM faculty_seq)), false) FROM faculty;
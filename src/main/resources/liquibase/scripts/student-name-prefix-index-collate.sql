@@ -0,0 +1,4 @@
+-- liquibase formatted sql
+-- changeset dkochetov:12
+DROP INDEX idx_student_name_lower;
+CREATE INDEX idx_student_name_lower_c ON student (lower(name) COLLATE "C", id) INCLUDE (name);
@@ -0,0 +1,3 @@
+-- liquibase formatted sql
+-- changeset dkochetov:10
+CREATE INDEX idx_student_name_lower ON student (lower(name) text_pattern_ops, id) INCLUDE (name);
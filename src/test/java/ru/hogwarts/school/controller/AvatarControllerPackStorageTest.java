@@ -0,0 +1,127 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "path.to.avatars.folder=target/test-avatars",
+        "avatar.storage.type=pack",
+        "avatar.storage.pack.dir=target/test-avatars/packs"
+})
+class AvatarControllerPackStorageTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @AfterEach
+    public void cleanup() {
+        avatarRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/avatar";
+    }
+
+    @Test
+    void uploadAvatar_sameContentForTwoStudents_shouldShareOnePackRecord() throws IOException {
+        Student student1 = studentRepository.save(new Student("StudPack1", 17));
+        Student student2 = studentRepository.save(new Student("StudPack2", 18));
+        byte[] image = createImage(200, 150);
+
+        upload(student1.getId(), image, "first.png");
+        upload(student2.getId(), image, "second.png");
+
+        Avatar avatar1 = avatarRepository.findByStudentId(student1.getId()).orElseThrow();
+        Avatar avatar2 = avatarRepository.findByStudentId(student2.getId()).orElseThrow();
+        assertThat(avatar1.getFilePath()).startsWith("pack:");
+        assertThat(avatar1.getFilePath()).isEqualTo(avatar2.getFilePath());
+    }
+
+    @Test
+    void getAvatarFromFile_shouldReturnBlobFromPack() throws IOException {
+        Student student = studentRepository.save(new Student("StudPack3", 17));
+        byte[] image = createImage(120, 80);
+        upload(student.getId(), image, "avatar.png");
+
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(baseUrl + "/" + student.getId() + "/from-file", byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(image);
+    }
+
+    @Test
+    void getAvatarPreview_shouldResizeBlobFromPack() throws IOException {
+        Student student = studentRepository.save(new Student("StudPack4", 17));
+        upload(student.getId(), createImage(400, 300), "avatar.png");
+
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(baseUrl + "/" + student.getId() + "/preview?w=200", byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BufferedImage preview = ImageIO.read(new ByteArrayInputStream(response.getBody()));
+        assertThat(preview.getWidth()).isEqualTo(200);
+    }
+
+    private ResponseEntity<Long> upload(long studentId, byte[] image, String fileName) {
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.IMAGE_PNG);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("avatar", new HttpEntity<>(new ByteArrayResource(image) {
+            @Override
+            public String getFilename() {
+                return fileName;
+            }
+        }, partHeaders));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        return restTemplate.postForEntity(baseUrl + "/" + studentId + "/upload", new HttpEntity<>(body, headers), Long.class);
+    }
+
+    private byte[] createImage(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(width / 2, height / 2, 0xFF0000);
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "png", baos);
+            return baos.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarStatus;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRenditionRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = "path.to.avatars.folder=target/test-avatars")
+class AvatarControllerTestRestTemplateTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AvatarRenditionRepository avatarRenditionRepository;
+
+    @AfterEach
+    public void cleanup() {
+        avatarRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/avatar";
+    }
+
+    @Test
+    void uploadAvatar_sameContentForTwoStudents_shouldShareOneFile() throws IOException {
+        Student student1 = studentRepository.save(new Student("StudAvatar1", 17));
+        Student student2 = studentRepository.save(new Student("StudAvatar2", 18));
+        byte[] image = createImage(200, 150);
+
+        ResponseEntity<Long> response1 = upload(student1.getId(), image, "first.png");
+        ResponseEntity<Long> response2 = upload(student2.getId(), image, "second.png");
+
+        assertThat(response1.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response2.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Avatar avatar1 = avatarRepository.findByStudentId(student1.getId()).orElseThrow();
+        Avatar avatar2 = avatarRepository.findByStudentId(student2.getId()).orElseThrow();
+        assertThat(avatar1.getFilePath()).isEqualTo(avatar2.getFilePath());
+        assertThat(Files.readAllBytes(Path.of(avatar1.getFilePath()))).isEqualTo(image);
+    }
+
+    @Test
+    void getAvatarFromFile_shouldReturnUploadedFile() throws IOException {
+        Student student = studentRepository.save(new Student("StudAvatar3", 17));
+        byte[] image = createImage(120, 80);
+        upload(student.getId(), image, "avatar.png");
+
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(baseUrl + "/" + student.getId() + "/from-file", byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(image);
+    }
+
+    @Test
+    void getAvatarFromDb_shouldReturnPreviewOnceProcessed() throws Exception {
+        Student student = studentRepository.save(new Student("StudAvatar4", 17));
+        upload(student.getId(), createImage(400, 300), "avatar.png");
+
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(baseUrl + "/" + student.getId() + "/from-db", byte[].class);
+        for (int attempt = 0; attempt < 50 && response.getStatusCode() == HttpStatus.ACCEPTED; attempt++) {
+            Thread.sleep(100);
+            response = restTemplate.getForEntity(baseUrl + "/" + student.getId() + "/from-db", byte[].class);
+        }
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BufferedImage preview = ImageIO.read(new ByteArrayInputStream(response.getBody()));
+        assertThat(preview.getWidth()).isEqualTo(100);
+        assertThat(avatarRepository.findByStudentId(student.getId()).orElseThrow().getStatus()).isEqualTo(AvatarStatus.READY);
+    }
+
+    @Test
+    void getAvatarPreview_shouldGenerateRenditionOnceAndReuseIt() throws IOException {
+        Student student = studentRepository.save(new Student("StudAvatar5", 17));
+        upload(student.getId(), createImage(400, 300), "avatar.png");
+
+        ResponseEntity<byte[]> first = restTemplate.getForEntity(baseUrl + "/" + student.getId() + "/preview?w=200", byte[].class);
+        ResponseEntity<byte[]> second = restTemplate.getForEntity(baseUrl + "/" + student.getId() + "/preview?w=200", byte[].class);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BufferedImage preview = ImageIO.read(new ByteArrayInputStream(first.getBody()));
+        assertThat(preview.getWidth()).isEqualTo(200);
+        assertThat(preview.getHeight()).isEqualTo(150);
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+        assertThat(avatarRenditionRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void getAvatarPreview_forNarrowImage_shouldNotUpscale() throws IOException {
+        Student student = studentRepository.save(new Student("StudAvatar6", 17));
+        upload(student.getId(), createImage(60, 90), "avatar.png");
+
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(baseUrl + "/" + student.getId() + "/preview?w=100", byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BufferedImage preview = ImageIO.read(new ByteArrayInputStream(response.getBody()));
+        assertThat(preview.getWidth()).isEqualTo(60);
+        assertThat(preview.getHeight()).isEqualTo(90);
+    }
+
+    @Test
+    void getAvatarPreview_withWidthOutsideWhitelist_shouldReturn400() throws IOException {
+        Student student = studentRepository.save(new Student("StudAvatar7", 17));
+        upload(student.getId(), createImage(400, 300), "avatar.png");
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/" + student.getId() + "/preview?w=123", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void getAllAvatars_shouldPageByCursorWithoutPreviewData() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            Student student = studentRepository.save(new Student("StudAvatarPage" + i, 17));
+            upload(student.getId(), createImage(100 + i, 100), "avatar.png");
+        }
+
+        ResponseEntity<List<Map<String, Object>>> first = restTemplate.exchange(baseUrl + "/all?size=2", HttpMethod.GET, null, new ParameterizedTypeReference<List<Map<String, Object>>>() {
+        });
+        String cursor = first.getHeaders().getFirst("X-Next-Cursor");
+        ResponseEntity<List<Map<String, Object>>> second = restTemplate.exchange(baseUrl + "/all?size=2&after=" + cursor, HttpMethod.GET, null, new ParameterizedTypeReference<List<Map<String, Object>>>() {
+        });
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody()).hasSize(2);
+        assertThat(first.getBody().get(0)).containsKey("studentId").doesNotContainKey("data");
+        assertThat(cursor).isNotNull();
+        assertThat(second.getBody()).hasSize(1);
+        assertThat(second.getHeaders().getFirst("X-Next-Cursor")).isNull();
+    }
+
+    @Test
+    void importAvatars_shouldReportResultPerEntry() throws IOException {
+        Student student1 = studentRepository.save(new Student("StudAvatarZip1", 17));
+        Student student2 = studentRepository.save(new Student("StudAvatarZip2", 18));
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            addEntry(zip, "year1/" + student1.getId() + ".png", createImage(300, 200));
+            addEntry(zip, student2.getId() + "_portrait.png", createImage(50, 50));
+            addEntry(zip, "readme.png", createImage(10, 10));
+            addEntry(zip, "999999.png", createImage(10, 10));
+        }
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("archive", new ByteArrayResource(archive.toByteArray()) {
+            @Override
+            public String getFilename() {
+                return "avatars.zip";
+            }
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(baseUrl + "/import", HttpMethod.POST, new HttpEntity<>(body, headers), new ParameterizedTypeReference<List<Map<String, Object>>>() {
+        });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(result -> result.get("success")).containsExactly(true, true, false, false);
+        Avatar avatar = avatarRepository.findByStudentId(student1.getId()).orElseThrow();
+        assertThat(avatar.getStatus()).isEqualTo(AvatarStatus.READY);
+        assertThat(ImageIO.read(new ByteArrayInputStream(avatar.getData())).getWidth()).isEqualTo(100);
+        assertThat(avatarRepository.findByStudentId(student2.getId())).isPresent();
+    }
+
+    @Test
+    void importAvatars_forStudentWithAvatar_shouldUpdateExistingAvatar() throws IOException {
+        Student student = studentRepository.save(new Student("StudAvatarZip3", 17));
+        Long avatarId = upload(student.getId(), createImage(120, 120), "before.png").getBody();
+        String previousFilePath = avatarRepository.findByStudentId(student.getId()).orElseThrow().getFilePath();
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            addEntry(zip, student.getId() + ".png", createImage(240, 120));
+        }
+
+        ResponseEntity<List<Map<String, Object>>> response = postArchive(archive.toByteArray());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).singleElement().satisfies(result -> {
+            assertThat(result.get("success")).isEqualTo(true);
+            assertThat(((Number) result.get("avatarId")).longValue()).isEqualTo(avatarId);
+        });
+        Avatar avatar = avatarRepository.findByStudentId(student.getId()).orElseThrow();
+        assertThat(avatar.getId()).isEqualTo(avatarId);
+        assertThat(avatar.getFilePath()).isNotEqualTo(previousFilePath);
+        assertThat(avatar.getStatus()).isEqualTo(AvatarStatus.READY);
+        assertThat(ImageIO.read(new ByteArrayInputStream(avatar.getData())).getHeight()).isEqualTo(50);
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> postArchive(byte[] archive) {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("archive", new ByteArrayResource(archive) {
+            @Override
+            public String getFilename() {
+                return "avatars.zip";
+            }
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        return restTemplate.exchange(baseUrl + "/import", HttpMethod.POST, new HttpEntity<>(body, headers), new ParameterizedTypeReference<List<Map<String, Object>>>() {
+        });
+    }
+
+    private void addEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    private ResponseEntity<Long> upload(long studentId, byte[] image, String fileName) {
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.IMAGE_PNG);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("avatar", new HttpEntity<>(new ByteArrayResource(image) {
+            @Override
+            public String getFilename() {
+                return fileName;
+            }
+        }, partHeaders));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        return restTemplate.postForEntity(baseUrl + "/" + studentId + "/upload", new HttpEntity<>(body, headers), Long.class);
+    }
+
+    private byte[] createImage(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(width / 2, height / 2, 0xFF0000);
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "png", baos);
+            return baos.toByteArray();
+        }
+    }
+}
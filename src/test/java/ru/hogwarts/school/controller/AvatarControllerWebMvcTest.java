@@ -0,0 +1,117 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.dto.AvatarPreview;
+import ru.hogwarts.school.exception.ServiceUnavailableException;
+import ru.hogwarts.school.model.AvatarStatus;
+import ru.hogwarts.school.service.AvatarImportService;
+import ru.hogwarts.school.service.AvatarService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AvatarController.class)
+class AvatarControllerWebMvcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AvatarService avatarService;
+
+    @MockitoBean
+    private AvatarImportService avatarImportService;
+
+    private final AvatarInfo testAvatar = new AvatarInfo(1L, 1L, "avatars/1_test.png", 10, "image/png", AvatarStatus.READY);
+    private final byte[] fileContent = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void getAvatarFromDb_whenPreviewPending_shouldReturnAccepted() throws Exception {
+        when(avatarService.getAvatarPreview(1L)).thenReturn(new AvatarPreview(AvatarStatus.PENDING, "image/png", null, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/1/from-db")).andExpect(status().isAccepted()).andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void getAvatarFromDb_whenPreviewFailed_shouldReturnUnprocessableEntity() throws Exception {
+        when(avatarService.getAvatarPreview(1L)).thenReturn(new AvatarPreview(AvatarStatus.FAILED, "image/png", null, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/1/from-db")).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void getAvatarFromDb_shouldReturnPreviewWithETag() throws Exception {
+        when(avatarService.getAvatarPreview(1L)).thenReturn(new AvatarPreview(AvatarStatus.READY, "image/png", fileContent, "\"abc\""));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/1/from-db")).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "\"abc\"")).andExpect(content().bytes(fileContent));
+    }
+
+    @Test
+    void getAvatarFromDb_withMatchingIfNoneMatch_shouldReturnNotModified() throws Exception {
+        when(avatarService.getAvatarPreview(1L)).thenReturn(new AvatarPreview(AvatarStatus.READY, "image/png", fileContent, "\"abc\""));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/1/from-db").header(HttpHeaders.IF_NONE_MATCH, "\"abc\"")).andExpect(status().isNotModified()).andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getAllAvatars_whenPageIsFull_shouldReturnNextCursor() throws Exception {
+        AvatarInfo second = new AvatarInfo(2L, 2L, "avatars/2_test.png", 10, "image/png", AvatarStatus.READY);
+        when(avatarService.getAvatarsAfter(null, 2)).thenReturn(List.of(testAvatar, second));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/all").param("size", "2")).andExpect(status().isOk()).andExpect(header().string("X-Next-Cursor", "2")).andExpect(jsonPath("$.length()").value(2)).andExpect(jsonPath("$[0].studentId").value(1));
+    }
+
+    @Test
+    void getAllAvatars_onLastPage_shouldNotReturnNextCursor() throws Exception {
+        when(avatarService.getAvatarsAfter(1L, 2)).thenReturn(List.of(testAvatar));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/all").param("after", "1").param("size", "2")).andExpect(status().isOk()).andExpect(header().doesNotExist("X-Next-Cursor")).andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getAvatarFromFile_shouldReturnWholeFile() throws Exception {
+        when(avatarService.getAvatarInfo(1L)).thenReturn(testAvatar);
+        when(avatarService.getAvatarFromFile(testAvatar)).thenReturn(new ByteArrayResource(fileContent));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/1/from-file")).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes")).andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png")).andExpect(content().bytes(fileContent));
+    }
+
+    @Test
+    void getAvatarFromFile_withRange_shouldReturnPartialContent() throws Exception {
+        when(avatarService.getAvatarInfo(1L)).thenReturn(testAvatar);
+        when(avatarService.getAvatarFromFile(testAvatar)).thenReturn(new ByteArrayResource(fileContent));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/1/from-file").header(HttpHeaders.RANGE, "bytes=2-5")).andExpect(status().isPartialContent()).andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10")).andExpect(content().bytes("2345".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void getAvatarFromFile_withUnsatisfiableRange_shouldReturn416() throws Exception {
+        when(avatarService.getAvatarInfo(1L)).thenReturn(testAvatar);
+        when(avatarService.getAvatarFromFile(testAvatar)).thenReturn(new ByteArrayResource(fileContent));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/1/from-file").header(HttpHeaders.RANGE, "bytes=20-30")).andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    void uploadAvatar_whenDecodeGateIsFull_shouldReturnServiceUnavailable() throws Exception {
+        MockMultipartFile avatar = new MockMultipartFile("avatar", "avatar.png", "image/png", fileContent);
+        when(avatarService.uploadAvatar(eq(1L), any())).thenThrow(new ServiceUnavailableException("Сервер перегружен", Duration.ofSeconds(5)));
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart("/avatar/1/upload").file(avatar)).andExpect(status().isServiceUnavailable()).andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+    }
+}
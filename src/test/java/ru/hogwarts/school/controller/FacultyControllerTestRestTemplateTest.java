@@ -9,14 +9,24 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.FacultyStats;
+import ru.hogwarts.school.dto.FacultyStatsReport;
+import ru.hogwarts.school.dto.StudentDto;
 import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
 
 import java.util.Collection;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class FacultyControllerTestRestTemplateTest {
@@ -30,8 +40,12 @@ class FacultyControllerTestRestTemplateTest {
     @Autowired
     private ru.hogwarts.school.repository.FacultyRepository facultyRepository;
 
+    @Autowired
+    private StudentRepository studentRepository;
+
     @AfterEach
     public void cleanup() {
+        studentRepository.deleteAll();
         facultyRepository.deleteAll();
     }
 
@@ -147,4 +161,119 @@ class FacultyControllerTestRestTemplateTest {
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().size()).isGreaterThanOrEqualTo(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportFaculties_shouldStreamOneJsonObjectPerLine() {
+        restTemplate.postForObject(baseUrl, new Faculty("FacExport1", "ColExport1"), Faculty.class);
+        restTemplate.postForObject(baseUrl, new Faculty("FacExport2", "ColExport2"), Faculty.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/export", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(response.getBody().lines().toList()).hasSize(2).allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}").doesNotContain("students"));
+        assertThat(response.getBody()).contains("\"name\":\"FacExport1\"", "\"color\":\"ColExport2\"");
+    }
+
+    @Test
+    void getFacultyById_afterUpdate_shouldNotReturnCachedFaculty() {
+        Faculty created = restTemplate.postForObject(baseUrl, testFaculty, Faculty.class);
+        restTemplate.getForEntity(baseUrl + "/" + created.getId(), Faculty.class);
+        created.setColor("ColCached");
+        restTemplate.exchange(baseUrl, HttpMethod.PUT, new HttpEntity<>(created), Faculty.class);
+
+        ResponseEntity<Faculty> response = restTemplate.getForEntity(baseUrl + "/" + created.getId(), Faculty.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getColor()).isEqualTo("ColCached");
+    }
+
+    @Test
+    void getFaculty_shouldOmitRosterUnlessStudentsAreIncluded() {
+        Faculty faculty = facultyRepository.save(new Faculty("FacRoster", "ColRoster"));
+        for (String name : List.of("StudRoster1", "StudRoster2")) {
+            Student student = new Student(name, 17);
+            student.setFaculty(faculty);
+            studentRepository.save(student);
+        }
+
+        ResponseEntity<String> plain = restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), String.class);
+        ResponseEntity<FacultyDto> withStudents = restTemplate.getForEntity(baseUrl + "/" + faculty.getId() + "?include=students", FacultyDto.class);
+        ResponseEntity<List<FacultyDto>> all = restTemplate.exchange(baseUrl + "?include=students", HttpMethod.GET, null, new ParameterizedTypeReference<List<FacultyDto>>() {
+        });
+
+        assertThat(plain.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(plain.getBody()).contains("\"name\":\"FacRoster\"").doesNotContain("students");
+        assertThat(withStudents.getBody().getStudents()).extracting(StudentDto::getName).containsExactly("StudRoster1", "StudRoster2");
+        assertThat(all.getBody()).singleElement().satisfies(dto -> assertThat(dto.getStudents()).hasSize(2));
+    }
+
+    @Test
+    void getFaculty_withStudentsAfterCachedPlainRead_shouldLoadCurrentRoster() {
+        Faculty faculty = facultyRepository.save(new Faculty("FacRosterFresh", "ColRosterFresh"));
+        restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), FacultyDto.class);
+        Student student = new Student("StudRosterFresh", 17);
+        student.setFaculty(faculty);
+        studentRepository.save(student);
+
+        ResponseEntity<FacultyDto> plain = restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), FacultyDto.class);
+        ResponseEntity<FacultyDto> withStudents = restTemplate.getForEntity(baseUrl + "/" + faculty.getId() + "?include=students", FacultyDto.class);
+
+        assertThat(plain.getBody().getStudents()).isNull();
+        assertThat(withStudents.getBody().getStudents()).extracting(StudentDto::getName).containsExactly("StudRosterFresh");
+    }
+
+    @Test
+    void createFaculty_withNameDifferingOnlyByCase_shouldReturnConflict() {
+        restTemplate.postForObject(baseUrl, new Faculty("FacUnique", "ColUnique1"), Faculty.class);
+
+        ResponseEntity<String> response = restTemplate.postForEntity(baseUrl, new Faculty("facUNIQUE", "ColUnique2"), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void updateFaculty_toExistingName_shouldReturnConflict() {
+        restTemplate.postForObject(baseUrl, new Faculty("FacTaken", "ColTaken"), Faculty.class);
+        Faculty other = restTemplate.postForObject(baseUrl, new Faculty("FacOther", "ColOther"), Faculty.class);
+        other.setName("FACTAKEN");
+
+        ResponseEntity<String> conflict = restTemplate.exchange(baseUrl, HttpMethod.PUT, new HttpEntity<>(other), String.class);
+        other.setName("FacOther");
+        ResponseEntity<String> sameName = restTemplate.exchange(baseUrl, HttpMethod.PUT, new HttpEntity<>(other), String.class);
+
+        assertThat(conflict.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(sameName.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void getFacultyStats_shouldAggregatePerFacultyAndRefreshAfterStudentWrite() {
+        Faculty busy = restTemplate.postForObject(baseUrl, new Faculty("FacStatsBusy", "ColStats1"), Faculty.class);
+        restTemplate.postForObject(baseUrl, new Faculty("FacStatsEmptyLonger", "ColStats2"), Faculty.class);
+        for (int age : new int[]{17, 19}) {
+            Student student = new Student("StudStats" + age, age);
+            student.setFaculty(facultyRepository.getReferenceById(busy.getId()));
+            studentRepository.save(student);
+        }
+
+        FacultyStatsReport report = restTemplate.getForObject(baseUrl + "/stats", FacultyStatsReport.class);
+
+        assertThat(report.getLongestName()).isEqualTo("FacStatsEmptyLonger");
+        assertThat(report.getFaculties()).extracting(FacultyStats::getFacultyName, FacultyStats::getStudentCount, FacultyStats::getAverageAge, FacultyStats::getMinAge, FacultyStats::getMaxAge)
+                .containsExactly(tuple("FacStatsBusy", 2L, 18.0, 17, 19), tuple("FacStatsEmptyLonger", 0L, null, null, null));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        String ndjson = "{\"name\":\"StudStatsNew\",\"age\":21,\"facultyId\":" + busy.getId() + "}\n";
+        restTemplate.postForEntity("http://localhost:" + port + "/student/import", new HttpEntity<>(ndjson, headers), String.class);
+
+        assertThat(restTemplate.getForObject(baseUrl + "/stats", FacultyStatsReport.class).getFaculties().get(0).getStudentCount()).isEqualTo(3);
+    }
+
+    @Test
+    void getTheLongestName_withoutFaculties_shouldReturnNotFound() {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/search/longname", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
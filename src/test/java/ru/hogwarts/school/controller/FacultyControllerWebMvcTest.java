@@ -8,6 +8,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.StudentDto;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.service.FacultyService;
@@ -36,7 +38,7 @@ class FacultyControllerWebMvcTest {
     @Test
     void createFaculty_shouldReturnCreatedFaculty() throws Exception {
         testFaculty.setId(1L);
-        when(facultyService.createFaculty(any(Faculty.class))).thenReturn(testFaculty);
+        when(facultyService.createFaculty(any(Faculty.class))).thenReturn(FacultyDto.from(testFaculty));
 
         mockMvc.perform(MockMvcRequestBuilders.post("/faculty").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(testFaculty))).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(1)).andExpect(jsonPath("$.name").value("FacTest1M")).andExpect(jsonPath("$.color").value("ColTest1M"));
     }
@@ -44,14 +46,14 @@ class FacultyControllerWebMvcTest {
     @Test
     void getFacultyById_shouldReturnFaculty() throws Exception {
         testFaculty.setId(1L);
-        when(facultyService.findFacultyById(1L)).thenReturn(testFaculty);
+        when(facultyService.findFacultyById(1L, false)).thenReturn(FacultyDto.from(testFaculty));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/faculty/1")).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(1)).andExpect(jsonPath("$.name").value("FacTest1M"));
     }
 
     @Test
     void getFacultyById_whenFacultyNotFound_shouldReturn404() throws Exception {
-        when(facultyService.findFacultyById(999L)).thenThrow(new ru.hogwarts.school.exception.FacultyNotFoundException("Факультет не найден"));
+        when(facultyService.findFacultyById(999L, false)).thenThrow(new ru.hogwarts.school.exception.FacultyNotFoundException("Факультет не найден"));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/faculty/999")).andExpect(status().isNotFound());
     }
@@ -61,7 +63,7 @@ class FacultyControllerWebMvcTest {
         testFaculty.setId(1L);
         testFaculty.setName("FacTest2M");
         testFaculty.setColor("ColTest2M");
-        when(facultyService.updateFaculty(any(Faculty.class))).thenReturn(testFaculty);
+        when(facultyService.updateFaculty(any(Faculty.class))).thenReturn(FacultyDto.from(testFaculty));
 
         mockMvc.perform(MockMvcRequestBuilders.put("/faculty").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(testFaculty))).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(1)).andExpect(jsonPath("$.name").value("FacTest2M")).andExpect(jsonPath("$.color").value("ColTest2M"));
     }
@@ -78,8 +80,8 @@ class FacultyControllerWebMvcTest {
         faculty1.setId(1L);
         faculty2.setId(2L);
 
-        Collection<Faculty> faculties = List.of(faculty1);
-        when(facultyService.findFacultyByNameOrColor("ColTest3M")).thenReturn(faculties);
+        List<FacultyDto> faculties = List.of(FacultyDto.from(faculty1));
+        when(facultyService.findFacultyByNameOrColor("ColTest3M", false)).thenReturn(faculties);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/faculty/search/ColTest3M")).andExpect(status().isOk()).andExpect(jsonPath("$[0].name").value("FacTest3M")).andExpect(jsonPath("$[0].color").value("ColTest3M"));
     }
@@ -91,8 +93,8 @@ class FacultyControllerWebMvcTest {
         faculty1.setId(1L);
         faculty2.setId(2L);
 
-        Collection<Faculty> faculties = List.of(faculty1, faculty2);
-        when(facultyService.findFacultyByColor("ColTest5M")).thenReturn(faculties);
+        List<FacultyDto> faculties = List.of(FacultyDto.from(faculty1), FacultyDto.from(faculty2));
+        when(facultyService.findFacultyByColor("ColTest5M", false)).thenReturn(faculties);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/faculty/search/color/ColTest5M")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2));
     }
@@ -104,10 +106,18 @@ class FacultyControllerWebMvcTest {
         faculty1.setId(1L);
         faculty2.setId(2L);
 
-        Collection<Faculty> faculties = List.of(faculty1, faculty2);
-        when(facultyService.findAllFaculties()).thenReturn(faculties);
+        List<FacultyDto> faculties = List.of(FacultyDto.from(faculty1), FacultyDto.from(faculty2));
+        when(facultyService.findAllFaculties(false)).thenReturn(faculties);
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/faculty")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(MockMvcRequestBuilders.get("/faculty")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2)).andExpect(jsonPath("$[0].students").doesNotExist());
+    }
+
+    @Test
+    void getAllFaculties_withIncludeStudents_shouldReturnRosters() throws Exception {
+        FacultyDto faculty = new FacultyDto(1L, "FacTest8M", "ColTest8M", List.of(new StudentDto(1L, "StudTest9M", 17)));
+        when(facultyService.findAllFaculties(true)).thenReturn(List.of(faculty));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/faculty").param("include", "students")).andExpect(status().isOk()).andExpect(jsonPath("$[0].students[0].name").value("StudTest9M"));
     }
 
     @Test
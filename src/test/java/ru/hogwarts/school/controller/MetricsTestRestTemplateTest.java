@@ -0,0 +1,75 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:metricsdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "management.endpoints.web.exposure.include=health,metrics,prometheus",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session.events.log=false"
+})
+class MetricsTestRestTemplateTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @AfterEach
+    public void cleanup() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+    }
+
+    @Test
+    void prometheus_afterRequests_shouldExposeControllerRepositoryAndHibernateMetrics() {
+        Student student = restTemplate.postForObject(baseUrl + "/student", new Student("Argus Filch", 60), Student.class);
+        restTemplate.getForEntity(baseUrl + "/student/" + student.getId(), Student.class);
+        restTemplate.postForObject(baseUrl + "/faculty", new Faculty("Metrics", "grey"), Faculty.class);
+        restTemplate.getForEntity(baseUrl + "/faculty/search/color/grey", String.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .containsPattern("http_server_requests_seconds_count\\{[^}]*uri=\"/student/\\{id}\"")
+                .containsPattern("http_server_requests_seconds_count\\{[^}]*uri=\"/faculty/search/color/\\{color}\"")
+                .containsPattern("spring_data_repository_invocations_seconds_count\\{[^}]*method=\"save\"[^}]*repository=\"StudentRepository\"")
+                .containsPattern("spring_data_repository_invocations_seconds_count\\{[^}]*repository=\"FacultyRepository\"")
+                .contains("hibernate_query_executions_total")
+                .contains("hibernate_entities_loads_total")
+                .contains("cache_gets_total{cache=\"student\",result=\"hit\"}");
+    }
+}
@@ -0,0 +1,93 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SearchControllerTestRestTemplateTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @AfterEach
+    public void cleanup() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+    }
+
+    @Test
+    void search_withTypo_shouldRankClosestStudentFirst() {
+        Student quirinus = restTemplate.postForObject(baseUrl + "/student", new Student("Quirinus Quirrell", 18), Student.class);
+        restTemplate.postForObject(baseUrl + "/student", new Student("Quentin Quill", 17), Student.class);
+
+        List<SearchHit> hits = search("quirel");
+
+        assertThat(hits).isNotEmpty();
+        assertThat(hits.get(0).getType()).isEqualTo("student");
+        assertThat(hits.get(0).getId()).isEqualTo(quirinus.getId());
+        assertThat(hits.get(0).getText()).isEqualTo("Quirinus Quirrell");
+    }
+
+    @Test
+    void search_shouldMatchFacultyColorAndForgetDeletedFaculty() {
+        Faculty faculty = restTemplate.postForObject(baseUrl + "/faculty", new Faculty("Durmstrangia", "Vermillionish"), Faculty.class);
+
+        assertThat(search("vermilion")).anySatisfy(hit -> {
+            assertThat(hit.getType()).isEqualTo("faculty");
+            assertThat(hit.getId()).isEqualTo(faculty.getId());
+            assertThat(hit.getField()).isEqualTo("color");
+        });
+
+        restTemplate.delete(baseUrl + "/faculty/" + faculty.getId());
+
+        assertThat(search("vermilion")).noneMatch(hit -> hit.getType().equals("faculty") && hit.getId() == faculty.getId());
+    }
+
+    @Test
+    void search_withoutLettersOrDigits_shouldReturnBadRequest() {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/search?q=--", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private List<SearchHit> search(String query) {
+        ResponseEntity<List<SearchHit>> response = restTemplate.exchange(baseUrl + "/search?q=" + query, HttpMethod.GET, null, new ParameterizedTypeReference<List<SearchHit>>() {
+        });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+}
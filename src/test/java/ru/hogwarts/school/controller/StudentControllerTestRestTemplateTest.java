@@ -9,12 +9,20 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import ru.hogwarts.school.dto.FacultyStudents;
+import ru.hogwarts.school.dto.StudentImportResult;
+import ru.hogwarts.school.dto.StudentStats;
+import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -30,9 +38,13 @@ class StudentControllerTestRestTemplateTest {
     @Autowired
     private ru.hogwarts.school.repository.StudentRepository studentRepository;
 
+    @Autowired
+    private ru.hogwarts.school.repository.FacultyRepository facultyRepository;
+
     @AfterEach
     public void cleanup() {
         studentRepository.deleteAll();
+        facultyRepository.deleteAll();
     }
 
     private String baseUrl;
@@ -135,6 +147,21 @@ class StudentControllerTestRestTemplateTest {
         assertThat(response.getBody()).hasSize(2);
     }
 
+    @Test
+    void getStudentsByAge_afterUpdate_shouldFollowNewAge() {
+        Student student = restTemplate.postForObject(baseUrl, new Student("StudTestAgeMove", 17), Student.class);
+        student.setAge(19);
+        restTemplate.exchange(baseUrl, HttpMethod.PUT, new HttpEntity<>(student), Student.class);
+
+        ResponseEntity<Collection<Student>> oldAge = restTemplate.exchange(baseUrl + "/age/17", HttpMethod.GET, null, new ParameterizedTypeReference<Collection<Student>>() {
+        });
+        ResponseEntity<Collection<Student>> newAge = restTemplate.exchange(baseUrl + "/age/19", HttpMethod.GET, null, new ParameterizedTypeReference<Collection<Student>>() {
+        });
+
+        assertThat(oldAge.getBody()).isEmpty();
+        assertThat(newAge.getBody()).extracting(Student::getName).containsExactly("StudTestAgeMove");
+    }
+
     @Test
     void getAllStudents_shouldReturnAllStudents() {
         restTemplate.postForObject(baseUrl, new Student("StudTest8", 16), Student.class);
@@ -146,4 +173,185 @@ class StudentControllerTestRestTemplateTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
     }
+
+    @Test
+    void getAllStudents_withCursor_shouldWalkAllPages() {
+        for (int i = 0; i < 5; i++) {
+            restTemplate.postForObject(baseUrl, new Student("StudPage" + i, 17 + i), Student.class);
+        }
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = baseUrl + "?limit=2" + (cursor == null ? "" : "&after=" + cursor);
+            ResponseEntity<List<Student>> response = restTemplate.exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<Student>>() {
+            });
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            response.getBody().forEach(student -> names.add(student.getName()));
+            cursor = response.getHeaders().getFirst("X-Next-Cursor");
+        } while (cursor != null);
+
+        assertThat(names).containsExactly("StudPage0", "StudPage1", "StudPage2", "StudPage3", "StudPage4");
+    }
+
+    @Test
+    void getStudentNamesByPrefix_shouldMatchCaseInsensitivelyAcrossPages() {
+        for (String name : List.of("harry", "Hermione", "HARVEY", "Harold", "Ron", "Ha_rd")) {
+            restTemplate.postForObject(baseUrl, new Student(name, 17), Student.class);
+        }
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = baseUrl + "/names/prefix/HAR?limit=2" + (cursor == null ? "" : "&after=" + cursor);
+            ResponseEntity<List<String>> response = restTemplate.exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<String>>() {
+            });
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            names.addAll(response.getBody());
+            cursor = response.getHeaders().getFirst("X-Next-Cursor");
+        } while (cursor != null);
+
+        assertThat(names).containsExactly("Harold", "harry", "HARVEY");
+    }
+
+    @Test
+    void getStudentNamesByPrefix_shouldTreatWildcardsLiterally() {
+        restTemplate.postForObject(baseUrl, new Student("Ha_rd", 17), Student.class);
+        restTemplate.postForObject(baseUrl, new Student("Hard", 17), Student.class);
+
+        ResponseEntity<List<String>> response = restTemplate.exchange(baseUrl + "/names/prefix/ha_", HttpMethod.GET, null, new ParameterizedTypeReference<List<String>>() {
+        });
+
+        assertThat(response.getBody()).containsExactly("Ha_rd");
+    }
+
+    @Test
+    void getStudentsGroupedByFaculty_shouldReturnOneEntryPerFaculty() {
+        Faculty gryffindor = facultyRepository.save(new Faculty("FacGroup1", "ColGroup1"));
+        Faculty slytherin = facultyRepository.save(new Faculty("FacGroup2", "ColGroup2"));
+        for (Object[] row : new Object[][]{{"Hermione", gryffindor}, {"Neville", gryffindor}, {"Ron", gryffindor}, {"Draco Malfoy", slytherin}, {"Luna Lovegood", null}}) {
+            Student student = new Student((String) row[0], 17);
+            student.setFaculty((Faculty) row[1]);
+            studentRepository.save(student);
+        }
+
+        ResponseEntity<List<FacultyStudents>> response = restTemplate.exchange(baseUrl + "/by-faculty", HttpMethod.GET, null, new ParameterizedTypeReference<List<FacultyStudents>>() {
+        });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(FacultyStudents::getFacultyName).containsExactly("FacGroup1", "FacGroup2");
+        assertThat(response.getBody().get(0).getStudentNames()).containsExactly("Hermione", "Neville");
+        assertThat(response.getBody().get(1).getStudentNames()).containsExactly("Draco Malfoy");
+    }
+
+    @Test
+    void exportStudents_shouldStreamOneJsonObjectPerLine() {
+        for (int i = 0; i < 3; i++) {
+            restTemplate.postForObject(baseUrl, new Student("StudExport" + i, 17 + i), Student.class);
+        }
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/export", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        List<String> lines = response.getBody().lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).contains("\"name\":\"StudExport0\"");
+        assertThat(lines.get(2)).contains("\"name\":\"StudExport2\"", "\"age\":19");
+    }
+
+    @Test
+    void importStudents_fromCsv_shouldSaveValidRowsAndReportInvalidOnes() {
+        String csv = """
+                name,age
+                StudCsv1,17
+                "Stud, Csv2",18
+                StudCsv3,abc
+                ,19
+                StudCsv4,20
+                """;
+
+        ResponseEntity<StudentImportResult> response = postImport(csv, MediaType.parseMediaType("text/csv"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getImported()).isEqualTo(3);
+        assertThat(response.getBody().getErrors()).extracting("line").containsExactly(4L, 5L);
+        assertThat(studentRepository.findAll()).extracting(Student::getName).containsExactlyInAnyOrder("StudCsv1", "Stud, Csv2", "StudCsv4");
+    }
+
+    @Test
+    void importStudents_whenOneRowFailsToSave_shouldReportOnlyThatRow() {
+        String csv = "name,age\n"
+                + "StudChunk1,17\n"
+                + "StudChunk" + "x".repeat(300) + ",18\n"
+                + "StudChunk3,19\n";
+
+        ResponseEntity<StudentImportResult> response = postImport(csv, MediaType.parseMediaType("text/csv"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getImported()).isEqualTo(2);
+        assertThat(response.getBody().getErrors()).extracting("line").containsExactly(3L);
+        assertThat(studentRepository.findAll()).extracting(Student::getName).containsExactlyInAnyOrder("StudChunk1", "StudChunk3");
+    }
+
+    @Test
+    void importStudents_fromNdjson_shouldAttachExistingFaculty() {
+        Faculty faculty = facultyRepository.save(new Faculty("FacImport", "ColImport"));
+        String ndjson = "{\"name\":\"StudJson1\",\"age\":17,\"facultyId\":" + faculty.getId() + "}\n"
+                + "{\"name\":\"StudJson2\",\"age\":18,\"facultyId\":999999}\n"
+                + "{\"name\":\"StudJson3\",\"age\":19}\n";
+
+        ResponseEntity<StudentImportResult> response = postImport(ndjson, MediaType.APPLICATION_NDJSON);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getImported()).isEqualTo(2);
+        assertThat(response.getBody().getErrors()).extracting("line").containsExactly(2L);
+        assertThat(studentRepository.findByFacultyId(faculty.getId())).extracting(Student::getName).containsExactly("StudJson1");
+    }
+
+    private ResponseEntity<StudentImportResult> postImport(String body, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return restTemplate.postForEntity(baseUrl + "/import", new HttpEntity<>(body, headers), StudentImportResult.class);
+    }
+
+    @Test
+    void getStudentById_afterUpdate_shouldNotReturnCachedStudent() {
+        Student created = restTemplate.postForObject(baseUrl, testStudent, Student.class);
+        restTemplate.getForEntity(baseUrl + "/" + created.getId(), Student.class);
+        created.setName("StudCached");
+        restTemplate.exchange(baseUrl, HttpMethod.PUT, new HttpEntity<>(created), Student.class);
+
+        ResponseEntity<Student> response = restTemplate.getForEntity(baseUrl + "/" + created.getId(), Student.class);
+
+        assertThat(response.getBody().getName()).isEqualTo("StudCached");
+    }
+
+    @Test
+    void getStudentById_afterDelete_shouldReturn404() {
+        Student created = restTemplate.postForObject(baseUrl, testStudent, Student.class);
+        restTemplate.getForEntity(baseUrl + "/" + created.getId(), Student.class);
+        restTemplate.delete(baseUrl + "/" + created.getId());
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/" + created.getId(), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void countStudents_shouldTrackCreateUpdateAndDelete() {
+        Integer before = restTemplate.getForObject(baseUrl + "/count", Integer.class);
+        Student first = restTemplate.postForObject(baseUrl, new Student("StudStats1", 20), Student.class);
+        Student second = restTemplate.postForObject(baseUrl, new Student("StudStats2", 30), Student.class);
+        second.setAge(40);
+        restTemplate.exchange(baseUrl, HttpMethod.PUT, new HttpEntity<>(second), Student.class);
+
+        assertThat(restTemplate.getForObject(baseUrl + "/count", Integer.class)).isEqualTo(before + 2);
+        StudentStats stats = restTemplate.getForObject(baseUrl + "/stats", StudentStats.class);
+        assertThat(stats.getAgeHistogram()).containsEntry(40, 1L).doesNotContainKey(30);
+
+        restTemplate.delete(baseUrl + "/" + first.getId());
+
+        assertThat(restTemplate.getForObject(baseUrl + "/count", Integer.class)).isEqualTo(before + 1);
+    }
 }
@@ -8,8 +8,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.StudentName;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.StudentImportService;
 import ru.hogwarts.school.service.StudentService;
 
 import java.util.Collection;
@@ -31,6 +34,9 @@ class StudentControllerWebMvcTest {
     @MockitoBean
     private StudentService studentService;
 
+    @MockitoBean
+    private StudentImportService studentImportService;
+
     private final Student testStudent = new Student("StudTest1M", 17);
     private final Faculty testFaculty = new Faculty("FacTest1M", "ColTest1M");
 
@@ -104,16 +110,35 @@ class StudentControllerWebMvcTest {
         student1.setId(1L);
         student2.setId(2L);
 
-        Collection<Student> students = List.of(student1, student2);
-        when(studentService.findAllStudents()).thenReturn(students);
+        List<Student> students = List.of(student1, student2);
+        when(studentService.findStudentsAfter(null, 50)).thenReturn(students);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/student")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2)).andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getAllStudents_whenPageIsFull_shouldReturnNextCursor() throws Exception {
+        Student student1 = new Student("StudTest7M", 17);
+        Student student2 = new Student("StudTest8M", 18);
+        student1.setId(3L);
+        student2.setId(4L);
+
+        when(studentService.findStudentsAfter(2L, 2)).thenReturn(List.of(student1, student2));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/student").param("after", "2").param("limit", "2")).andExpect(status().isOk()).andExpect(jsonPath("$[0].id").value(3)).andExpect(header().string("X-Next-Cursor", "4"));
+    }
+
+    @Test
+    void getStudentNamesByPrefix_whenPageIsFull_shouldReturnNamesAndNextCursor() throws Exception {
+        when(studentService.findStudentNamesByPrefix("har", 3L, 2)).thenReturn(List.of(new StudentName(7L, "Harry"), new StudentName(5L, "harvey")));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/student")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(MockMvcRequestBuilders.get("/student/names/prefix/har").param("after", "3").param("limit", "2")).andExpect(status().isOk()).andExpect(jsonPath("$[0]").value("Harry")).andExpect(jsonPath("$[1]").value("harvey")).andExpect(header().string("X-Next-Cursor", "5"));
     }
 
     @Test
     void getStudentFaculty_shouldReturnFaculty() throws Exception {
         testFaculty.setId(1L);
-        when(studentService.findFacultyByIdStudent(1L)).thenReturn(testFaculty);
+        when(studentService.findFacultyByIdStudent(1L)).thenReturn(FacultyDto.from(testFaculty));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/student/faculty/1")).andExpect(status().isOk()).andExpect(jsonPath("$.name").value("FacTest1M")).andExpect(jsonPath("$.color").value("ColTest1M"));
     }
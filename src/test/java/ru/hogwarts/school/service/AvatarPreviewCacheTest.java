@@ -0,0 +1,54 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.Test;
+import ru.hogwarts.school.dto.AvatarPreview;
+import ru.hogwarts.school.model.AvatarStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvatarPreviewCacheTest {
+
+    private static final AvatarPreview OLD = new AvatarPreview(AvatarStatus.READY, "image/png", new byte[]{1}, "\"old\"");
+    private static final AvatarPreview NEW = new AvatarPreview(AvatarStatus.READY, "image/png", new byte[]{2}, "\"new\"");
+
+    private final AvatarPreviewCache cache = new AvatarPreviewCache(1024, Duration.ofMinutes(10));
+
+    @Test
+    void invalidate_duringLoad_shouldDropTheStaleResult() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        CompletableFuture<AvatarPreview> staleLoad = CompletableFuture.supplyAsync(() -> cache.get(1L, id -> {
+            loading.countDown();
+            await(finishLoad);
+            return OLD;
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> invalidation = CompletableFuture.runAsync(() -> cache.invalidate(1L));
+        finishLoad.countDown();
+        staleLoad.get(5, TimeUnit.SECONDS);
+        invalidation.get(5, TimeUnit.SECONDS);
+
+        assertThat(cache.get(1L, id -> NEW)).isSameAs(NEW);
+    }
+
+    @Test
+    void get_shouldReuseLoadedPreview() {
+        cache.get(1L, id -> OLD);
+
+        assertThat(cache.get(1L, id -> NEW)).isSameAs(OLD);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.unit.DataSize;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarStatus;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.storage.AvatarStorage;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AvatarPreviewGeneratorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ImageDecodeGate gate = new ImageDecodeGate(DataSize.ofMegabytes(1), Duration.ofMillis(50), Duration.ofSeconds(5), meterRegistry);
+    private final AvatarRepository avatarRepository = mock(AvatarRepository.class);
+    private final AvatarStorage avatarStorage = mock(AvatarStorage.class);
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_afterPreviewIsGenerated_shouldReleasePermit() throws Exception {
+        AvatarPreviewGenerator generator = generator(startedExecutor());
+        byte[] content = createImage(200, 100);
+
+        generator.submit(avatar(), content, generator.admitQueued(content));
+        awaitTasks();
+
+        verify(avatarRepository).updatePreview(eq(7L), eq("blob"), any(byte[].class), eq(AvatarStatus.READY));
+        assertThat(usedBytes()).isZero();
+    }
+
+    @Test
+    void admitQueued_shouldReserveDecodedPixelsAndEncodedContent() throws IOException {
+        AvatarPreviewGenerator generator = generator(executor);
+        byte[] content = createImage(100, 100);
+
+        try (ImageDecodeGate.Permit permit = generator.admitQueued(content)) {
+            long expected = 100 * 100 * 4 + content.length;
+            assertThat(usedBytes()).isEqualTo((double) ((expected + 1023) / 1024 * 1024));
+        }
+    }
+
+    @Test
+    void submit_whenDecodingFails_shouldReleasePermit() throws Exception {
+        AvatarPreviewGenerator generator = generator(startedExecutor());
+        byte[] content = {1, 2, 3};
+
+        generator.submit(avatar(), content, gate.acquire(DataSize.ofKilobytes(100).toBytes()));
+        awaitTasks();
+
+        verify(avatarRepository).updatePreview(eq(7L), eq("blob"), isNull(), eq(AvatarStatus.FAILED));
+        assertThat(usedBytes()).isZero();
+    }
+
+    @Test
+    void submit_whenExecutorRejectsTask_shouldReleasePermit() {
+        AvatarPreviewGenerator generator = generator(executor);
+        ImageDecodeGate.Permit permit = gate.acquire(DataSize.ofKilobytes(100).toBytes());
+
+        assertThatThrownBy(() -> generator.submit(avatar(), new byte[]{1}, permit)).isInstanceOf(IllegalStateException.class);
+        assertThat(usedBytes()).isZero();
+    }
+
+    @Test
+    void submit_whenQueueIsFull_shouldDeferPreviewWithoutRunningItOnCaller() throws Exception {
+        executor.setQueueCapacity(0);
+        AvatarPreviewGenerator generator = generator(startedExecutor());
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        byte[] content = createImage(200, 100);
+
+        generator.submit(avatar(), content, generator.admitQueued(content));
+
+        verify(avatarRepository, never()).updatePreview(any(), any(), any(), any());
+        assertThat(usedBytes()).isZero();
+
+        busy.countDown();
+        when(avatarRepository.findInfoById(7L)).thenReturn(Optional.of(new AvatarInfo(7L, 3L, "blob", content.length, "image/png", AvatarStatus.PENDING)));
+        when(avatarStorage.load("blob")).thenReturn(new ByteArrayResource(content));
+        await(() -> {
+            generator.retryDeferred();
+            verify(avatarRepository).updatePreview(eq(7L), eq("blob"), any(byte[].class), eq(AvatarStatus.READY));
+        });
+        assertThat(usedBytes()).isZero();
+    }
+
+    @Test
+    void retryDeferred_whenAvatarIsNoLongerPending_shouldDropIt() throws Exception {
+        executor.setQueueCapacity(0);
+        AvatarPreviewGenerator generator = generator(startedExecutor());
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        generator.submit(avatar(), new byte[]{1}, gate.acquire(1));
+        busy.countDown();
+        when(avatarRepository.findInfoById(7L)).thenReturn(Optional.empty());
+
+        generator.retryDeferred();
+        generator.retryDeferred();
+
+        verify(avatarRepository, times(1)).findInfoById(7L);
+        verify(avatarStorage, never()).load(any());
+    }
+
+    private void await(Runnable assertion) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            try {
+                assertion.run();
+                return;
+            } catch (AssertionError e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private AvatarPreviewGenerator generator(ThreadPoolTaskExecutor executor) {
+        return new AvatarPreviewGenerator(avatarRepository, executor, new AvatarPreviewCache(1024, Duration.ofMinutes(1)), avatarStorage, gate);
+    }
+
+    private ThreadPoolTaskExecutor startedExecutor() {
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.initialize();
+        return executor;
+    }
+
+    private void awaitTasks() throws InterruptedException {
+        executor.getThreadPoolExecutor().shutdown();
+        assertThat(executor.getThreadPoolExecutor().awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private Avatar avatar() {
+        Student student = new Student("Preview", 17);
+        student.setId(3L);
+        Avatar avatar = new Avatar();
+        avatar.setId(7L);
+        avatar.setStudent(student);
+        avatar.setFilePath("blob");
+        avatar.setMediaType("image/png");
+        return avatar;
+    }
+
+    private double usedBytes() {
+        return meterRegistry.get("avatar.decode.gate.used").gauge().value();
+    }
+
+    private byte[] createImage(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "png", baos);
+            return baos.toByteArray();
+        }
+    }
+}
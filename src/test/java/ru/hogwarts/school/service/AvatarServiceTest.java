@@ -0,0 +1,106 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarStatus;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRenditionRepository;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.storage.AvatarStorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AvatarServiceTest {
+
+    private final AvatarRepository avatarRepository = mock(AvatarRepository.class);
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final AvatarStorage avatarStorage = mock(AvatarStorage.class);
+    private final AvatarPreviewGenerator avatarPreviewGenerator = mock(AvatarPreviewGenerator.class);
+    private final AvatarRenditionRepository avatarRenditionRepository = mock(AvatarRenditionRepository.class);
+    private final ImageDecodeGate gate = new ImageDecodeGate(DataSize.ofMegabytes(1), Duration.ofMillis(50), Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+    private AvatarService avatarService;
+
+    @BeforeEach
+    void setUp() {
+        avatarService = new AvatarService(avatarRepository, studentRepository, avatarStorage, avatarPreviewGenerator, avatarRenditionRepository, new AvatarPreviewCache(1024, Duration.ofMinutes(1)));
+        ReflectionTestUtils.setField(avatarService, "maxFileSize", DataSize.ofMegabytes(2));
+    }
+
+    @Test
+    void uploadAvatar_shouldStoreHashAndPreviewFromSingleRead() throws IOException {
+        Student student = new Student("Single Read", 17);
+        student.setId(5L);
+        byte[] content = {10, 20, 30, 40};
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getSize()).thenReturn((long) content.length);
+        when(file.getBytes()).thenReturn(content);
+        when(file.getContentType()).thenReturn("image/png");
+        when(studentRepository.findById(5L)).thenReturn(Optional.of(student));
+        when(avatarRepository.findInfoByStudentId(5L)).thenReturn(Optional.empty());
+        when(avatarRepository.save(any(Avatar.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(avatarStorage.store(any())).thenReturn("blob");
+        when(avatarPreviewGenerator.admitQueued(any())).thenAnswer(invocation -> gate.acquire(1));
+
+        avatarService.uploadAvatar(5L, file);
+
+        verify(file, times(1)).getBytes();
+        verify(file, never()).getInputStream();
+        verify(file, never()).transferTo(any(File.class));
+        ArgumentCaptor<InputStreamSource> stored = ArgumentCaptor.forClass(InputStreamSource.class);
+        verify(avatarStorage).store(stored.capture());
+        try (InputStream is = stored.getValue().getInputStream()) {
+            assertThat(StreamUtils.copyToByteArray(is)).isEqualTo(content);
+        }
+        verify(avatarPreviewGenerator).admitQueued(same(content));
+        verify(avatarPreviewGenerator).submit(any(Avatar.class), same(content), any());
+    }
+
+    @Test
+    void uploadAvatar_forStudentWithAvatar_shouldRewriteRowWithoutLoadingPreview() throws IOException {
+        Student student = new Student("Replace", 17);
+        student.setId(6L);
+        byte[] content = {1, 2, 3};
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getSize()).thenReturn((long) content.length);
+        when(file.getBytes()).thenReturn(content);
+        when(file.getContentType()).thenReturn("image/png");
+        when(studentRepository.findById(6L)).thenReturn(Optional.of(student));
+        when(avatarRepository.findInfoByStudentId(6L)).thenReturn(Optional.of(new AvatarInfo(9L, 6L, "old", 10, "image/png", AvatarStatus.READY)));
+        when(avatarRepository.updateContent(9L, "new", 3, "image/png", null, AvatarStatus.PENDING)).thenReturn(1);
+        when(avatarStorage.store(any())).thenReturn("new");
+        when(avatarPreviewGenerator.admitQueued(any())).thenAnswer(invocation -> gate.acquire(1));
+
+        Avatar avatar = avatarService.uploadAvatar(6L, file);
+
+        assertThat(avatar.getId()).isEqualTo(9L);
+        verify(avatarRepository, never()).findByStudentId(any());
+        verify(avatarRepository, never()).save(any());
+        verify(avatarRenditionRepository).deleteByAvatarId(9L);
+        verify(avatarStorage).release("old");
+        verify(avatarPreviewGenerator).submit(same(avatar), same(content), any());
+    }
+}
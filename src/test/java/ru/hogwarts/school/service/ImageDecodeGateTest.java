@@ -0,0 +1,64 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import ru.hogwarts.school.exception.BadRequestException;
+import ru.hogwarts.school.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageDecodeGateTest {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(5);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ImageDecodeGate gate = new ImageDecodeGate(DataSize.ofKilobytes(64), Duration.ofMillis(50), RETRY_AFTER, meterRegistry);
+
+    @Test
+    void acquire_withinCapacity_shouldReserveRoundedUpMemory() {
+        try (ImageDecodeGate.Permit permit = gate.acquire(10_000)) {
+            assertThat(usedBytes()).isEqualTo(10 * 1024);
+        }
+        assertThat(usedBytes()).isZero();
+    }
+
+    @Test
+    void acquire_overCapacity_shouldRejectWithBadRequest() {
+        assertThatThrownBy(() -> gate.acquire(DataSize.ofKilobytes(65).toBytes())).isInstanceOf(BadRequestException.class);
+        assertThat(usedBytes()).isZero();
+    }
+
+    @Test
+    void acquire_whenGateIsFull_shouldRejectAfterMaxWait() {
+        try (ImageDecodeGate.Permit permit = gate.acquire(DataSize.ofKilobytes(48).toBytes())) {
+            long started = System.nanoTime();
+
+            assertThatThrownBy(() -> gate.acquire(DataSize.ofKilobytes(32).toBytes()))
+                    .isInstanceOfSatisfying(ServiceUnavailableException.class, e -> assertThat(e.getRetryAfter()).isEqualTo(RETRY_AFTER));
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(40));
+        }
+    }
+
+    @Test
+    void close_calledTwice_shouldReleaseOnlyOnce() {
+        ImageDecodeGate.Permit first = gate.acquire(DataSize.ofKilobytes(32).toBytes());
+        ImageDecodeGate.Permit second = gate.acquire(DataSize.ofKilobytes(32).toBytes());
+
+        first.close();
+        first.close();
+
+        assertThat(usedBytes()).isEqualTo(DataSize.ofKilobytes(32).toBytes());
+        assertThatThrownBy(() -> gate.acquire(DataSize.ofKilobytes(33).toBytes())).isInstanceOf(ServiceUnavailableException.class);
+        second.close();
+        assertThat(usedBytes()).isZero();
+    }
+
+    private double usedBytes() {
+        return meterRegistry.get("avatar.decode.gate.used").gauge().value();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.Test;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentName;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchIndexTest {
+
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final FacultyRepository facultyRepository = mock(FacultyRepository.class);
+    private final SearchIndex index = new SearchIndex(studentRepository, facultyRepository);
+
+    @Test
+    void rebuild_shouldKeepWritesMadeWhileDocumentsAreQueried() {
+        when(studentRepository.findAllNames()).thenAnswer(invocation -> {
+            index.indexStudent(2, "Hannah Abbott");
+            index.indexStudent(3, "Ernie Macmillan");
+            index.removeStudent(1);
+            return List.of(new StudentName(1, "Zacharias Smith"), new StudentName(2, "Hannah Abbott"));
+        });
+        when(facultyRepository.findAllSummaries()).thenAnswer(invocation -> {
+            index.indexFaculty(7, "Hufflepuff", "yellow");
+            return List.of();
+        });
+
+        index.rebuild();
+
+        assertThat(index.search("Macmillan", 10)).extracting(SearchHit::getId).containsExactly(3L);
+        assertThat(index.search("Abbott", 10)).extracting(SearchHit::getId).containsExactly(2L);
+        assertThat(index.search("Hufflepuff", 10)).extracting(SearchHit::getType).containsExactly(SearchIndex.FACULTY);
+        assertThat(index.search("Zacharias", 10)).isEmpty();
+    }
+
+    @Test
+    void rebuild_shouldReplaceDocumentsRemovedOutsideTheService() {
+        index.indexFaculty(5, "Durmstrang", "red");
+        when(studentRepository.findAllNames()).thenReturn(List.of());
+        when(facultyRepository.findAllSummaries()).thenReturn(List.of(new FacultyDto(6L, "Beauxbatons", "blue")));
+
+        index.rebuild();
+
+        assertThat(index.search("Durmstrang", 10)).isEmpty();
+        assertThat(index.search("Beauxbatons", 10)).extracting(SearchHit::getId).containsExactly(6L);
+    }
+}
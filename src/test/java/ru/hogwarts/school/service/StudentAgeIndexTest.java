@@ -0,0 +1,44 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.Test;
+import ru.hogwarts.school.dto.StudentAge;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StudentAgeIndexTest {
+
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final StudentAgeIndex index = new StudentAgeIndex(studentRepository, true);
+
+    @Test
+    void rebuild_shouldKeepWritesMadeWhileAgesAreQueried() {
+        when(studentRepository.findAllAges()).thenAnswer(invocation -> {
+            index.add(5, 18);
+            index.move(2, 17, 19);
+            return List.of(new StudentAge(1, 17), new StudentAge(2, 17), new StudentAge(3, 18));
+        });
+
+        index.rebuild();
+
+        assertThat(index.idsForAge(17)).containsExactly(1);
+        assertThat(index.idsForAge(18)).containsExactly(3, 5);
+        assertThat(index.idsForAge(19)).containsExactly(2);
+    }
+
+    @Test
+    void rebuild_whenQueryAlreadySawTheWrite_shouldNotDuplicateIt() {
+        when(studentRepository.findAllAges()).thenAnswer(invocation -> {
+            index.add(4, 18);
+            return List.of(new StudentAge(4, 18));
+        });
+
+        index.rebuild();
+
+        assertThat(index.idsForAgeRange(0, 150)).containsExactly(4);
+    }
+}
@@ -0,0 +1,94 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.hogwarts.school.dto.AgeCount;
+import ru.hogwarts.school.dto.StudentAge;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StudentStatisticsTest {
+
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final StudentStatistics statistics = new StudentStatistics(studentRepository, mock(PlatformTransactionManager.class));
+
+    @Test
+    void rebuild_whenWriteIsInQuerySnapshot_shouldCountItOnce() {
+        when(studentRepository.countByAge()).thenAnswer(invocation -> {
+            statistics.added(5, 20);
+            return List.of(new AgeCount(17, 2), new AgeCount(18, 1), new AgeCount(20, 1));
+        });
+        when(studentRepository.findAgesByIdIn(List.of(5L))).thenReturn(List.of(new StudentAge(5, 20)));
+
+        statistics.rebuild();
+
+        assertThat(statistics.count()).isEqualTo(4);
+        assertThat(statistics.snapshot().getAgeHistogram()).containsEntry(17, 2L).containsEntry(18, 1L).containsEntry(20, 1L);
+    }
+
+    @Test
+    void rebuild_whenWriteIsNotInQuerySnapshot_shouldCountItOnce() {
+        when(studentRepository.countByAge()).thenAnswer(invocation -> {
+            statistics.added(5, 20);
+            return List.of(new AgeCount(17, 2), new AgeCount(18, 1));
+        });
+
+        statistics.rebuild();
+
+        assertThat(statistics.count()).isEqualTo(4);
+        assertThat(statistics.snapshot().getAgeHistogram()).containsEntry(17, 2L).containsEntry(18, 1L).containsEntry(20, 1L);
+    }
+
+    @Test
+    void rebuild_shouldKeepUpdatesAndDeletesMadeWhileCountsAreQueried() {
+        when(studentRepository.countByAge()).thenAnswer(invocation -> {
+            statistics.changed(6, 17, 19);
+            statistics.removed(7, 17);
+            return List.of(new AgeCount(17, 2), new AgeCount(18, 1));
+        });
+        when(studentRepository.findAgesByIdIn(anyCollection())).thenReturn(List.of(new StudentAge(6, 17), new StudentAge(7, 17)));
+
+        statistics.rebuild();
+
+        assertThat(statistics.count()).isEqualTo(2);
+        assertThat(statistics.snapshot().getAgeHistogram()).containsOnlyKeys(18, 19);
+        assertThat(statistics.averageAge()).isEqualTo((18 + 19) / 2.0);
+    }
+
+    @Test
+    void rebuild_whenWriteLandsWhileSnapshotStateIsRead_shouldCountItOnce() {
+        when(studentRepository.countByAge()).thenAnswer(invocation -> {
+            statistics.added(5, 20);
+            return List.of(new AgeCount(17, 1), new AgeCount(20, 1));
+        });
+        when(studentRepository.findAgesByIdIn(List.of(5L))).thenAnswer(invocation -> {
+            statistics.added(8, 30);
+            return List.of(new StudentAge(5, 20));
+        });
+
+        statistics.rebuild();
+
+        assertThat(statistics.count()).isEqualTo(3);
+        assertThat(statistics.snapshot().getAgeHistogram()).containsEntry(17, 1L).containsEntry(20, 1L).containsEntry(30, 1L);
+    }
+
+    @Test
+    void rebuild_whenQueryFails_shouldKeepCurrentCounters() {
+        statistics.added(1, 15);
+        when(studentRepository.countByAge()).thenThrow(new IllegalStateException("database is down"));
+
+        try {
+            statistics.rebuild();
+        } catch (IllegalStateException ignored) {
+        }
+        statistics.added(2, 16);
+
+        assertThat(statistics.count()).isEqualTo(2);
+    }
+}
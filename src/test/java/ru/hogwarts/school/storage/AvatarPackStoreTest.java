@@ -0,0 +1,119 @@
+package ru.hogwarts.school.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import ru.hogwarts.school.repository.AvatarRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvatarPackStoreTest {
+
+    @TempDir
+    private Path dir;
+
+    private final AvatarRepository avatarRepository = mock(AvatarRepository.class);
+    private AvatarPackStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new AvatarPackStore(avatarRepository);
+        ReflectionTestUtils.setField(store, "packDir", dir.toString());
+        ReflectionTestUtils.setField(store, "maxPackSize", DataSize.ofBytes(1024));
+        ReflectionTestUtils.setField(store, "compactionThreshold", 0.6);
+        ReflectionTestUtils.setField(store, "gcGrace", Duration.ofHours(1));
+        store.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void compact_shouldDropUnreferencedBlobsAndMoveReferencedOnes() throws IOException {
+        String dropped = store.store(new ByteArrayResource(content(1)));
+        String moved = store.store(new ByteArrayResource(content(2)));
+        store.store(new ByteArrayResource(content(3)));
+        expireGrace(dropped, moved);
+        when(avatarRepository.countByFilePath(anyString())).thenReturn(0L);
+        when(avatarRepository.countByFilePath(moved)).thenReturn(1L);
+
+        store.compact();
+
+        assertThat(dir.resolve("pack-000001.dat")).doesNotExist();
+        assertThat(store.load(dropped).exists()).isFalse();
+        assertThat(bytes(store.load(moved))).isEqualTo(content(2));
+    }
+
+    @Test
+    void compact_whenBlobIsDeduplicatedDuringDatabaseCheck_shouldKeepIt() throws Exception {
+        String key = store.store(new ByteArrayResource(content(1)));
+        String dropped = store.store(new ByteArrayResource(content(2)));
+        store.store(new ByteArrayResource(content(3)));
+        expireGrace(key, dropped);
+        CountDownLatch checking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(avatarRepository.countByFilePath(anyString())).thenAnswer(invocation -> {
+            checking.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return 0L;
+        });
+
+        CompletableFuture<Void> compaction = CompletableFuture.runAsync(store::compact);
+        assertThat(checking.await(10, TimeUnit.SECONDS)).isTrue();
+        String deduplicated = CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.store(new ByteArrayResource(content(1)));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(5, TimeUnit.SECONDS);
+        release.countDown();
+        compaction.get(10, TimeUnit.SECONDS);
+
+        assertThat(dir.resolve("pack-000001.dat")).doesNotExist();
+        assertThat(deduplicated).isEqualTo(key);
+        assertThat(store.load(dropped).exists()).isFalse();
+        assertThat(bytes(store.load(key))).isEqualTo(content(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expireGrace(String... keys) {
+        Map<String, Instant> lastTouched = (Map<String, Instant>) ReflectionTestUtils.getField(store, "lastTouched");
+        for (String key : keys) {
+            lastTouched.put(key.substring(AvatarPackStore.KEY_PREFIX.length()), Instant.now().minus(Duration.ofHours(2)));
+        }
+    }
+
+    private static byte[] content(int seed) {
+        byte[] content = new byte[400];
+        Arrays.fill(content, (byte) seed);
+        return content;
+    }
+
+    private static byte[] bytes(Resource resource) throws IOException {
+        try (InputStream is = resource.getInputStream()) {
+            return is.readAllBytes();
+        }
+    }
+}
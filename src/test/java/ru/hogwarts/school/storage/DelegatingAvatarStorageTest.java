@@ -0,0 +1,64 @@
+package ru.hogwarts.school.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DelegatingAvatarStorageTest {
+
+    private static final String KEY = "avatars/ab/abcdef";
+
+    private AvatarFileStore avatarFileStore;
+    private DelegatingAvatarStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        avatarFileStore = mock(AvatarFileStore.class);
+        AvatarPackStore avatarPackStore = mock(AvatarPackStore.class);
+        when(avatarPackStore.supports(KEY)).thenReturn(false);
+        storage = new DelegatingAvatarStorage(avatarFileStore, avatarPackStore, "file");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void release_withoutTransaction_shouldReleaseImmediately() {
+        storage.release(KEY);
+
+        verify(avatarFileStore).release(KEY);
+    }
+
+    @Test
+    void release_insideTransaction_shouldWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        storage.release(KEY);
+
+        verify(avatarFileStore, never()).release(KEY);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(avatarFileStore).release(KEY);
+    }
+
+    @Test
+    void release_insideRolledBackTransaction_shouldKeepBlob() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        storage.release(KEY);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(avatarFileStore, never()).release(KEY);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.hogwarts.school.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackFileTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void read_afterAppendsAcrossSegments_shouldReturnEveryRecord() throws IOException {
+        try (PackFile pack = new PackFile(1, dir.resolve("pack-000001.dat"), SEGMENT_SIZE)) {
+            List<Long> offsets = new ArrayList<>();
+            List<byte[]> contents = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                byte[] content = content(i, 10 + i * 7);
+                offsets.add(pack.append(ContentHash.sha256(new ByteArrayResource(content)), content));
+                contents.add(content);
+                for (int j = 0; j <= i; j++) {
+                    assertThat(bytes(pack.read(offsets.get(j), contents.get(j).length))).isEqualTo(contents.get(j));
+                }
+            }
+            assertThat(pack.size()).isGreaterThan(SEGMENT_SIZE * 10L);
+        }
+    }
+
+    @Test
+    void read_pastEndOfPack_shouldFail() throws IOException {
+        try (PackFile pack = new PackFile(1, dir.resolve("pack-000001.dat"), SEGMENT_SIZE)) {
+            byte[] content = content(1, 32);
+            long offset = pack.append(ContentHash.sha256(new ByteArrayResource(content)), content);
+
+            assertThatThrownBy(() -> pack.read(offset, content.length + 1)).isInstanceOf(IOException.class);
+        }
+    }
+
+    private static byte[] content(int seed, int length) {
+        byte[] content = new byte[length];
+        Arrays.fill(content, (byte) seed);
+        content[0] = (byte) length;
+        return content;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+}